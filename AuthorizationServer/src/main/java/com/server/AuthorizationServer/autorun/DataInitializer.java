@@ -22,7 +22,8 @@ public class DataInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        if (userRepository.count() == 0) {
+        // By name rather than an empty table: the seed profile's synthetic users are written first
+        if (!userRepository.existsByUsername("bill") && !userRepository.existsByUsername("admin")) {
             // Create default users
             User bill = new User("bill", "bill@example.com", passwordEncoder.encode("password"), "USER");
             User admin = new User("admin", "admin@example.com", passwordEncoder.encode("admin123"), "USER,ADMIN");
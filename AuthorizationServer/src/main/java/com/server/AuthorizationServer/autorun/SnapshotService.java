@@ -0,0 +1,150 @@
+package com.server.AuthorizationServer.autorun;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.server.snapshot.TableSnapshot;
+
+// Carries the user accounts of the in-memory database across restarts: written to snapshot.file
+// every snapshot.interval and when the application stops, after the web server has stopped
+// taking requests, and reloaded from a memory-mapped read (TableSnapshot) into the empty table
+// before the web server starts. Off unless snapshot.file is set. The file holds password
+// hashes, so keep it where the database itself would be kept.
+@Component
+@ConditionalOnProperty(name = "snapshot.file")
+public class SnapshotService implements SmartInitializingSingleton, SmartLifecycle {
+    private static final List<String> TABLES = List.of("users");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskScheduler taskScheduler;
+    private final Path file;
+    private final Duration interval;
+    private final int batchSize;
+    private final AtomicBoolean restored = new AtomicBoolean();
+    // One save at a time. A lock rather than a monitor, so a virtual thread blocked in JDBC while
+    // holding it does not pin its carrier.
+    private final ReentrantLock saving = new ReentrantLock();
+    private final Logger logger = Logger.getLogger(SnapshotService.class.getName());
+    private volatile ScheduledFuture<?> timer;
+    private volatile boolean running;
+
+    public SnapshotService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           PlatformTransactionManager transactionManager, TaskScheduler taskScheduler,
+                           @Value("${snapshot.file}") String file,
+                           @Value("${snapshot.interval:PT10M}") Duration interval,
+                           @Value("${snapshot.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionManager = transactionManager;
+        this.taskScheduler = taskScheduler;
+        this.file = Path.of(file).toAbsolutePath();
+        this.interval = interval;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        restore();
+    }
+
+    // Load the snapshot into the empty table; only the first call does anything.
+    // A snapshot that cannot be read stops the startup rather than be overwritten at shutdown.
+    public void restore() {
+        if (!restored.compareAndSet(false, true)) {
+            return;
+        }
+        if (!Files.exists(file)) {
+            logger.info("No snapshot at " + file + ", starting with the database as it is");
+            return;
+        }
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            logger.info("Table users already has rows, not restoring " + file);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Long> rows;
+        try {
+            rows = TableSnapshot.load(jdbcTemplate, transactionTemplate, file, batchSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not restore snapshot " + file, e);
+        }
+        // Ids came from the file, so move the identity column past them
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (max + 1));
+        logger.info(String.format("Restored %s from %s in %.1f s", rows, file, (System.nanoTime() - start) / 1e9));
+    }
+
+    // Write from one serializable transaction; the previous file stays until the new one is complete
+    public void save() {
+        saving.lock();
+        try {
+            long start = System.nanoTime();
+            TransactionTemplate snapshotTransaction = new TransactionTemplate(transactionManager);
+            snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+            Map<String, Long> rows = snapshotTransaction.execute(status -> {
+                try {
+                    return TableSnapshot.write(jdbcTemplate, TABLES, file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info(String.format("Saved %s to %s in %.1f s", rows, file, (System.nanoTime() - start) / 1e9));
+        } finally {
+            saving.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (interval.isPositive()) {
+            timer = taskScheduler.scheduleWithFixedDelay(this::save, Instant.now().plus(interval), interval);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        save();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Started before and stopped after the web server (DEFAULT_PHASE - 2048)
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.server.AuthorizationServer.autorun;
+
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// Synthetic login accounts for performance testing, created under the "seed" profile
+// (application-seed.properties). All of them share one password, hashed once up front and
+// written as is: BCrypt at its default cost takes tens of milliseconds per hash, hours for a
+// million users. Rows go out as JDBC batches, one transaction per seed.batch-size users, before
+// the web server takes requests, so no login sees a half-loaded table.
+// Usernames match the ResourceServer's SyntheticDataGenerator for the same seed.users.
+@Component
+@Profile("seed")
+public class SyntheticUserGenerator implements SmartInitializingSingleton, CommandLineRunner {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext applicationContext;
+    private final ObjectProvider<SnapshotService> snapshotService;
+    private final int users;
+    private final String password;
+    private final int batchSize;
+    private final boolean exitWhenDone;
+    private final Logger logger = Logger.getLogger(SyntheticUserGenerator.class.getName());
+
+    public SyntheticUserGenerator(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                  PasswordEncoder passwordEncoder, ApplicationContext applicationContext,
+                                  ObjectProvider<SnapshotService> snapshotService,
+                                  @Value("${seed.users:100000}") int users,
+                                  @Value("${seed.password:password}") String password,
+                                  @Value("${seed.batch-size:5000}") int batchSize,
+                                  @Value("${seed.exit:false}") boolean exitWhenDone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.applicationContext = applicationContext;
+        this.snapshotService = snapshotService;
+        this.users = users;
+        this.password = password;
+        this.batchSize = batchSize;
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // A restored snapshot (snapshot.file set) takes the place of generating the same users again
+        snapshotService.ifAvailable(SnapshotService::restore);
+
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, username(1));
+        if (existing != null && existing > 0) {
+            logger.info("Synthetic users already present (found " + username(1) + "), not generating again");
+        } else {
+            generate();
+        }
+    }
+
+    // With seed.exit, stop once started instead of serving
+    @Override
+    public void run(String... args) throws Exception {
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void generate() {
+        long start = System.nanoTime();
+        String passwordHash = passwordEncoder.encode(password);
+
+        for (int from = 1; from <= users; from += batchSize) {
+            int first = from;
+            int count = Math.min(batchSize, users - from + 1);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO users (username, email, password, roles, enabled) VALUES (?, ?, ?, 'USER', TRUE)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            String username = username(first + i);
+                            ps.setString(1, username);
+                            ps.setString(2, username + "@example.com");
+                            ps.setString(3, passwordHash);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return count;
+                        }
+                    }));
+        }
+
+        // The shared password stays out of the log
+        logger.info(String.format("Generated %d users (%s ... %s, password from seed.password) in %.1f s",
+                users, username(1), username(users), (System.nanoTime() - start) / 1e9));
+    }
+
+    private static String username(int n) {
+        return String.format("user%07d", n);
+    }
+
+}
@@ -28,6 +28,7 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
 import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -57,6 +58,9 @@ import com.nimbusds.jose.proc.SecurityContext;
 @Configuration
 public class ProjectConfig {
 
+    // Client setting naming the priority claim of the client's access tokens
+    static final String PRIORITY_SETTING = "priority";
+
     @Value("${react.redirect.uri}")
     private String redirectUri;
 
@@ -101,10 +105,11 @@ public class ProjectConfig {
     }
 
     @Bean
-    public RegisteredClientRepository registeredClientRepository() {
+    public RegisteredClientRepository registeredClientRepository(PasswordEncoder passwordEncoder) {
+        // Client secrets are checked with the same BCrypt encoder as passwords, so store it encoded
         RegisteredClient registeredClient = RegisteredClient.withId(UUID.randomUUID().toString())
                 .clientId("client")
-                .clientSecret("secret")
+                .clientSecret(passwordEncoder.encode("secret"))
                 .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
                 .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
                 .scope(OidcScopes.OPENID)
@@ -125,6 +130,7 @@ public class ProjectConfig {
                 .clientSettings(ClientSettings.builder()
                         .requireAuthorizationConsent(false)
                         .requireProofKey(true) // Enable PKCE for public client
+                        .setting(PRIORITY_SETTING, "HIGH") // Interactive users of the web app
                         .build())
                 .tokenSettings(TokenSettings.builder()
                         .accessTokenTimeToLive(Duration.ofMinutes(30))
@@ -153,14 +159,36 @@ public class ProjectConfig {
     }
 
     // CUSTOM CLAIMS
+    // Access tokens of users also carry their id and roles, so resource servers
+    // can identify the user without looking the username up on every request
+    // Access tokens also carry the priority that picks the ResourceServer's request lane
     @Bean
-    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer() {
+    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer(UserClaimsService userClaimsService) {
         return ctx -> {
             JwtClaimsSet.Builder claims = ctx.getClaims();
-            claims.claim("priority", "HIGH");
+            if (OAuth2TokenType.ACCESS_TOKEN.equals(ctx.getTokenType())) {
+                claims.claim("priority", priorityFor(ctx));
+                // A client_credentials principal is the client itself, never a user: no lookup
+                if (!AuthorizationGrantType.CLIENT_CREDENTIALS.equals(ctx.getAuthorizationGrantType())) {
+                    userClaimsService.claimsFor(ctx.getPrincipal().getName()).ifPresent(user -> {
+                        claims.claim("user_id", user.id());
+                        claims.claim("roles", user.roles());
+                    });
+                }
+            }
         };
     }
 
+    // The client's priority setting if it has one; otherwise client_credentials tokens, used for
+    // machine-to-machine and batch work, go LOW and the rest NORMAL
+    static String priorityFor(JwtEncodingContext ctx) {
+        Object configured = ctx.getRegisteredClient().getClientSettings().getSetting(PRIORITY_SETTING);
+        if (configured != null) {
+            return configured.toString();
+        }
+        return AuthorizationGrantType.CLIENT_CREDENTIALS.equals(ctx.getAuthorizationGrantType()) ? "LOW" : "NORMAL";
+    }
+
     @Bean
     public AuthorizationServerSettings autServerSettings() {
         return AuthorizationServerSettings.builder()
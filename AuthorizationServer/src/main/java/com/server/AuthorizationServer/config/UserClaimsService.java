@@ -0,0 +1,62 @@
+package com.server.AuthorizationServer.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.server.AuthorizationServer.models.User;
+import com.server.AuthorizationServer.repository.UserRepository;
+
+// User id and roles for the claims of access tokens. Every login and refresh issues a token,
+// so each user is read from the database once and then served from memory for a few minutes;
+// a role change shows up in tokens issued after the entry expires.
+@Service
+public class UserClaimsService {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final UserRepository userRepository;
+    private final Map<String, UserClaims> claimsByUsername = new ConcurrentHashMap<>();
+
+    public UserClaimsService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Empty for principals that are not users; client_credentials tokens do not ask
+    public Optional<UserClaims> claimsFor(String username) {
+        Instant now = Instant.now();
+        UserClaims cached = claimsByUsername.get(username);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return Optional.of(cached);
+        }
+
+        Optional<UserClaims> loaded = userRepository.findByUsername(username)
+                .map(user -> new UserClaims(user.getId(), roles(user), now.plus(TIME_TO_LIVE)));
+        if (loaded.isPresent()) {
+            if (claimsByUsername.size() >= MAX_ENTRIES) {
+                claimsByUsername.values().removeIf(claims -> !claims.expiresAt().isAfter(now));
+            }
+            if (claimsByUsername.size() < MAX_ENTRIES) {
+                claimsByUsername.put(username, loaded.get());
+            }
+        }
+        return loaded;
+    }
+
+    private static List<String> roles(User user) {
+        return Arrays.stream(user.getRoles().split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .toList();
+    }
+
+    public record UserClaims(Long id, List<String> roles, Instant expiresAt) {
+    }
+}
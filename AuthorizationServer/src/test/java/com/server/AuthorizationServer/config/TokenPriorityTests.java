@@ -0,0 +1,74 @@
+package com.server.AuthorizationServer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.AuthorizationServer.repository.UserRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenPriorityTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RegisteredClientRepository clients;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private UserRepository userRepository;
+
+    @Test
+    void clientCredentialsTokensAreLowPriority() throws Exception {
+        String basic = Base64.getEncoder().encodeToString("client:secret".getBytes(StandardCharsets.UTF_8));
+        String body = mockMvc.perform(post("/oauth2/token")
+                        .header(HttpHeaders.AUTHORIZATION, "Basic " + basic)
+                        .param("grant_type", "client_credentials")
+                        .param("scope", "openid"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String accessToken = objectMapper.readTree(body).get("access_token").asText();
+        byte[] payload = Base64.getUrlDecoder().decode(accessToken.split("\\.")[1]);
+        assertThat(objectMapper.readValue(payload, Map.class)).containsEntry("priority", "LOW");
+        // The client is not a user, so issuing its token does not look one up
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void webAppUsersAreHighPriority() {
+        JwtEncodingContext context = JwtEncodingContext
+                .with(JwsHeader.with(SignatureAlgorithm.RS256), JwtClaimsSet.builder())
+                .registeredClient(clients.findByClientId("react-client"))
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .build();
+
+        assertThat(ProjectConfig.priorityFor(context)).isEqualTo("HIGH");
+    }
+}
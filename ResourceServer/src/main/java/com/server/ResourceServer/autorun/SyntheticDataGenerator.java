@@ -0,0 +1,312 @@
+package com.server.ResourceServer.autorun;
+
+import com.server.ResourceServer.service.CompanyFacets;
+import com.server.ResourceServer.service.SnapshotService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.logging.Logger;
+
+// Fills the database with synthetic users, companies and memberships for performance testing.
+// Runs under the "seed" profile (defaults in application-seed.properties) once the beans are
+// ready but before the web server takes requests: nothing else inserts while rows go out as plain
+// JDBC batches with ids assigned here, one transaction per seed.batch-size rows, and the id
+// sequences are moved past them afterwards. The search and membership indexes load later, at
+// ApplicationReadyEvent, so they are built from the generated rows.
+//
+// Memberships per user are geometric around seed.memberships-per-user, and companies are picked
+// from a Zipf distribution over seed.company-skew: a few companies end up with a large share of
+// all users, most with a handful. Usernames are user0000001, user0000002, ... as in the
+// AuthorizationServer's generator, so the same seed.users gives matching accounts on both sides.
+@Component
+@Profile("seed")
+public class SyntheticDataGenerator implements SmartInitializingSingleton, CommandLineRunner {
+    
+    // allocationSize of the users_seq and companies_seq generators
+    private static final int SEQUENCE_ALLOCATION = 50;
+    private static final String[] INDUSTRIES = {
+        "Software", "Finance", "Healthcare", "Retail", "Manufacturing", "Education",
+        "Logistics", "Energy", "Media", "Hospitality", "Construction", "Agriculture"
+    };
+    private static final String[] COMPANY_SIZES = {"1-10", "11-50", "51-200", "201-1000", "1000+"};
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Aiko"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Tanaka", "Nguyen"
+    };
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Market St", "Park Rd", "Lake Dr", "Hill St"};
+    // created_at is spread over this many days before now
+    private static final int HISTORY_DAYS = 730;
+    
+    private final Logger logger = Logger.getLogger(SyntheticDataGenerator.class.getName());
+    
+    @Value("${seed.users:100000}")
+    private int users;
+    
+    @Value("${seed.companies:10000}")
+    private int companies;
+    
+    @Value("${seed.memberships-per-user:3}")
+    private double membershipsPerUser;
+    
+    @Value("${seed.company-skew:1.1}")
+    private double companySkew;
+    
+    @Value("${seed.batch-size:5000}")
+    private int batchSize;
+    
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+    
+    @Value("${seed.exit:false}")
+    private boolean exitWhenDone;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private CompanyFacets companyFacets;
+    
+    @Autowired
+    private ApplicationContext applicationContext;
+    
+    // Present when snapshot.file is set
+    @Autowired(required = false)
+    private SnapshotService snapshotService;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (companies < 1 || users < 0 || batchSize < 1) {
+            throw new IllegalStateException("seed.companies and seed.batch-size must be positive, seed.users not negative");
+        }
+        // A restored snapshot takes the place of generating the same rows again
+        if (snapshotService != null) {
+            snapshotService.restore();
+        }
+        
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, username(1));
+        if (existing != null && existing > 0) {
+            logger.info("Synthetic data already present (found " + username(1) + "), not generating again");
+        } else {
+            generate();
+        }
+    }
+    
+    // With seed.exit, stop once started instead of serving
+    @Override
+    public void run(String... args) {
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+    
+    private void generate() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long companyBase = maxId("companies");
+        long userBase = maxId("users");
+        
+        insertCompanies(companyBase, now, new SplittableRandom(randomSeed));
+        insertUsers(userBase, now, new SplittableRandom(randomSeed + 1));
+        long memberships = insertMemberships(userBase, companyBase, new SplittableRandom(randomSeed + 2));
+        
+        restartSequence("companies_seq", companyBase + companies);
+        restartSequence("users_seq", userBase + users);
+        companyFacets.reload();
+        
+        logger.info(String.format("Generated %d companies, %d users and %d memberships in %.1f s",
+            companies, users, memberships, (System.nanoTime() - start) / 1e9));
+    }
+    
+    private void insertCompanies(long base, LocalDateTime now, SplittableRandom random) {
+        String sql = "INSERT INTO companies (id, name, address, industry, company_size, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+        for (int from = 1; from <= companies; from += batchSize) {
+            int first = from;
+            int count = Math.min(batchSize, companies - from + 1);
+            insertBatch(sql, count, (ps, i) -> {
+                int n = first + i;
+                Timestamp createdAt = pastTimestamp(now, random);
+                ps.setLong(1, base + n);
+                ps.setString(2, String.format("Company %07d", n));
+                ps.setString(3, (1 + random.nextInt(9999)) + " " + pick(STREETS, random));
+                // Skewed too: the first industries are the common ones
+                ps.setString(4, INDUSTRIES[Math.min(random.nextInt(INDUSTRIES.length), random.nextInt(INDUSTRIES.length))]);
+                ps.setString(5, pick(COMPANY_SIZES, random));
+                ps.setTimestamp(6, createdAt);
+                ps.setTimestamp(7, createdAt);
+            });
+        }
+    }
+    
+    private void insertUsers(long base, LocalDateTime now, SplittableRandom random) {
+        String sql = "INSERT INTO users (id, username, email, first_name, last_name, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+        for (int from = 1; from <= users; from += batchSize) {
+            int first = from;
+            int count = Math.min(batchSize, users - from + 1);
+            insertBatch(sql, count, (ps, i) -> {
+                int n = first + i;
+                Timestamp createdAt = pastTimestamp(now, random);
+                ps.setLong(1, base + n);
+                ps.setString(2, username(n));
+                ps.setString(3, username(n) + "@example.com");
+                ps.setString(4, pick(FIRST_NAMES, random));
+                ps.setString(5, pick(LAST_NAMES, random));
+                ps.setTimestamp(6, createdAt);
+                ps.setTimestamp(7, createdAt);
+            });
+        }
+    }
+    
+    // Each user draws its membership count, then that many distinct companies by popularity
+    private long insertMemberships(long userBase, long companyBase, SplittableRandom random) {
+        double[] cumulative = zipfCumulative(companies, companySkew);
+        long stride = coprimeStride(companies);
+        // Geometric on 0, 1, 2, ... with the configured mean
+        double continueProbability = membershipsPerUser / (1 + membershipsPerUser);
+        long total = 0;
+        
+        long[] userIds = new long[batchSize];
+        long[] companyIds = new long[batchSize];
+        int pending = 0;
+        long[] picked = new long[Math.min(companies, 1024)];
+        for (int n = 1; n <= users; n++) {
+            int wanted = 0;
+            while (wanted < picked.length && random.nextDouble() < continueProbability) {
+                wanted++;
+            }
+            
+            int count = 0;
+            // Popular companies repeat; give up on a few draws rather than loop for a rare one
+            for (int attempt = 0; attempt < wanted * 4 && count < wanted; attempt++) {
+                int rank = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[companies - 1]);
+                rank = rank < 0 ? -rank - 1 : rank;
+                // Scatter ranks over the id range so the big companies are not all at the start
+                long companyId = companyBase + 1 + (rank * stride) % companies;
+                if (!contains(picked, count, companyId)) {
+                    picked[count++] = companyId;
+                }
+            }
+            
+            for (int i = 0; i < count; i++) {
+                userIds[pending] = userBase + n;
+                companyIds[pending] = picked[i];
+                if (++pending == batchSize) {
+                    flushMemberships(userIds, companyIds, pending);
+                    total += pending;
+                    pending = 0;
+                }
+            }
+        }
+        flushMemberships(userIds, companyIds, pending);
+        return total + pending;
+    }
+    
+    private void flushMemberships(long[] userIds, long[] companyIds, int count) {
+        insertBatch("INSERT INTO user_company (user_id, company_id) VALUES (?, ?)", count, (ps, i) -> {
+            ps.setLong(1, userIds[i]);
+            ps.setLong(2, companyIds[i]);
+        });
+    }
+    
+    private void insertBatch(String sql, int count, RowSetter rows) {
+        if (count == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                rows.setValues(ps, i);
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return count;
+            }
+        }));
+    }
+    
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+    
+    // The pooled optimizer hands out the block ending at the value it reads, so restarting at
+    // lastId + allocation makes the next id Hibernate assigns lastId + 1
+    private void restartSequence(String sequence, long lastId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + SEQUENCE_ALLOCATION));
+    }
+    
+    private static String username(int n) {
+        return String.format("user%07d", n);
+    }
+    
+    // Weight of rank r is 1 / (r + 1)^skew
+    private static double[] zipfCumulative(int size, double skew) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, skew);
+            cumulative[rank] = sum;
+        }
+        return cumulative;
+    }
+    
+    // A step near the golden ratio of the range with no common factor, so rank * stride mod size is a permutation
+    private static long coprimeStride(int size) {
+        long stride = Math.max(1, (long) (size * 0.618));
+        while (gcd(stride, size) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+    
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+    
+    private static boolean contains(long[] values, int count, long value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Timestamp pastTimestamp(LocalDateTime now, SplittableRandom random) {
+        return Timestamp.valueOf(now.minusSeconds(random.nextLong(HISTORY_DAYS * 86_400L)));
+    }
+    
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+    
+    @FunctionalInterface
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int i) throws SQLException;
+    }
+}
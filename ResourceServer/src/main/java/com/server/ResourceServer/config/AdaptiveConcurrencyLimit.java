@@ -0,0 +1,125 @@
+package com.server.ResourceServer.config;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// AIMD limit on the number of requests in flight, driven by their measured latency.
+// While requests finish within the latency target and the limit is actually being used,
+// it grows by about one per round trip; when one takes longer, it is cut by the backoff
+// ratio, at most once per round trip so a burst of slow responses counts as one signal.
+// Requests over the limit are refused at once instead of queueing behind a slow database.
+// PriorityLaneFilter takes a permit once a request holds its lane permit, so the latency is
+// service time, not time spent queued in a lane; HIGH requests are admitted regardless.
+public class AdaptiveConcurrencyLimit implements MeterBinder {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // Completion time of the last decrease; only requests started after it can cause another
+    private long lastDecrease = Long.MIN_VALUE;
+    private final LongAdder rejected = new LongAdder();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget,
+            double backoffRatio, LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("concurrency.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .description("Requests allowed in flight").register(registry);
+        Gauge.builder("concurrency.in.flight", this, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests in flight").register(registry);
+        FunctionCounter.builder("concurrency.rejected", rejected, LongAdder::sum)
+                .description("Requests refused over the limit").register(registry);
+    }
+
+    // Empty when the limit is reached; otherwise release the permit when the request completes
+    public Optional<Permit> tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return Optional.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return Optional.of(new Permit(nanoClock.getAsLong(), current + 1));
+            }
+        }
+    }
+
+    // Always admits: for requests that must not be shed but still load the server, so they
+    // count as in flight and their latency drives the limit like any other
+    public Permit admit() {
+        return new Permit(nanoClock.getAsLong(), inFlight.incrementAndGet());
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void onSample(long startedAt, long completedAt, int inFlightAtStart) {
+        double current = limit;
+        if (completedAt - startedAt > latencyTargetNanos) {
+            if (startedAt > lastDecrease) {
+                limit = Math.max(minLimit, current * backoffRatio);
+                lastDecrease = completedAt;
+            }
+        } else if (inFlightAtStart * 2 >= current) {
+            // Only grow when at least half the limit is in use, so an idle server keeps a sane limit
+            limit = Math.min(maxLimit, current + 1 / current);
+        }
+    }
+
+    public final class Permit {
+        private final long startedAt;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startedAt, int inFlightAtStart) {
+            this.startedAt = startedAt;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            onSample(startedAt, nanoClock.getAsLong(), inFlightAtStart);
+        }
+    }
+}
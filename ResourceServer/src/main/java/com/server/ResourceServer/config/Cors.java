@@ -16,6 +16,8 @@ public class Cors {
         config.setAllowedOrigins(Arrays.asList("http://localhost:5173","http://localhost:80", "http://localhost", "http://react-client:80"));
         config.addAllowedMethod("*");
         config.addAllowedHeader("*");
+        // Let the client read ETags for conditional GETs
+        config.addExposedHeader("ETag");
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
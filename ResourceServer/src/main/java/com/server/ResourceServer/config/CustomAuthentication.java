@@ -1,6 +1,7 @@
 package com.server.ResourceServer.config;
 
 import java.util.Collection;
+import java.util.List;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -9,13 +10,34 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 public class CustomAuthentication extends JwtAuthenticationToken {
 
     private final String priority;
+    // AuthorizationServer user id (user_id claim); null for client-credentials tokens
+    private final Long userId;
+    private final List<String> roles;
 
-    public CustomAuthentication(Jwt jwt, Collection<? extends GrantedAuthority> authorities, String priority) {
+    public CustomAuthentication(Jwt jwt, Collection<? extends GrantedAuthority> authorities, String priority,
+            Long userId, List<String> roles) {
         super(jwt, authorities);
         this.priority = priority;
+        this.userId = userId;
+        this.roles = roles;
     }
 
     public String getPriority() {
         return this.priority;
     }
+
+    public Long getUserId() {
+        return this.userId;
+    }
+
+    public List<String> getRoles() {
+        return this.roles;
+    }
+
+    // Copy of an already verified authentication for another request using the same token
+    public CustomAuthentication withDetails(Object details) {
+        CustomAuthentication copy = new CustomAuthentication(getToken(), getAuthorities(), priority, userId, roles);
+        copy.setDetails(details);
+        return copy;
+    }
 }
@@ -0,0 +1,89 @@
+package com.server.ResourceServer.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Read/write split, on only when datasource.replica.url is set. The primary pool is built from
+// the usual spring.datasource.* properties, the replica pool from datasource.replica.*; each has
+// its own Hikari settings and metrics. The application sees a single DataSource that routes
+// read-only transactions to the replica (see ReadWriteRoutingDataSource). Nothing read from the
+// replica may end up in the shared Hibernate caches, where primary reads would find it: read-only
+// transactions never store entities or collections (see ReplicaReadJpaDialect), and the query
+// cache is off.
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.url")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+            @Value("${datasource.replica.url}") String url,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        // Belt and braces: the replica only ever serves read-only transactions
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${datasource.read-your-writes:PT5S}") Duration readYourWrites) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, readYourWrites,
+                System::nanoTime);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Set on the entity manager factory before it initializes: the transaction manager takes its
+    // dialect from there and would overwrite one set on itself
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean factory) {
+                    factory.setJpaDialect(new ReplicaReadJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Hibernate 6.6 stores a query's results after a cache miss even when the session's cache mode
+    // is GET, so the store mode cannot keep replica results out of the query cache
+    @Bean
+    public HibernatePropertiesCustomizer disableQueryCache() {
+        return properties -> properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+    }
+}
@@ -0,0 +1,77 @@
+package com.server.ResourceServer.config;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.Resource;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jose.util.events.Event;
+import com.nimbusds.jose.util.events.EventListener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Metrics for the JWK set the decoder verifies tokens against: how long fetches from the
+// AuthorizationServer take and whether they fail, how old the keys in use are, and the
+// caching source's events (refresh timeouts, rate-limited refetches, outages served stale).
+@Component
+public class JwkSetMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer successfulFetches;
+    private final Timer failedFetches;
+    // Wall-clock millis of the last successful fetch, 0 before the first one
+    private final AtomicLong lastFetched = new AtomicLong();
+
+    public JwkSetMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.successfulFetches = Timer.builder("jwks.fetch").tag("outcome", "success")
+                .description("JWK set downloads from the authorization server").register(meterRegistry);
+        this.failedFetches = Timer.builder("jwks.fetch").tag("outcome", "failure")
+                .description("JWK set downloads from the authorization server").register(meterRegistry);
+        Gauge.builder("jwks.age", lastFetched, fetched -> fetched.get() == 0
+                        ? Double.NaN : (System.currentTimeMillis() - fetched.get()) / 1000.0)
+                .baseUnit("seconds")
+                .description("Time since the JWK set was last fetched successfully")
+                .register(meterRegistry);
+    }
+
+    // Time every download made through the given retriever
+    public ResourceRetriever timed(ResourceRetriever retriever) {
+        return url -> fetch(retriever, url);
+    }
+
+    private Resource fetch(ResourceRetriever retriever, URL url) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Resource resource = retriever.retrieveResource(url);
+            successfulFetches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            lastFetched.set(System.currentTimeMillis());
+            return resource;
+        } catch (IOException | RuntimeException e) {
+            failedFetches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    // Count the source's events as jwks.events{event=refresh-timed-out|rate-limited|outage|...}
+    public <S> EventListener<S, SecurityContext> listener() {
+        return this::count;
+    }
+
+    private void count(Event<?, ?> event) {
+        meterRegistry.counter("jwks.events", "event", eventName(event)).increment();
+    }
+
+    // RateLimitedEvent -> rate-limited, ScheduledRefreshFailed -> scheduled-refresh-failed
+    private static String eventName(Event<?, ?> event) {
+        String name = event.getClass().getSimpleName().replaceFirst("Event$", "");
+        return name.replaceAll("([a-z])([A-Z])", "$1-$2").toLowerCase();
+    }
+}
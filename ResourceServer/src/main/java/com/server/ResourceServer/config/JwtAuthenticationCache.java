@@ -0,0 +1,143 @@
+package com.server.ResourceServer.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Authenticates bearer tokens, remembering each verified token until it expires.
+// The SPA sends the same access token for its whole lifetime, so after the first request
+// the RSA signature check and claim conversion are replaced by a digest lookup.
+// Keys are SHA-256 digests, so raw tokens are never kept in memory.
+@Component
+public class JwtAuthenticationCache implements DisposableBean {
+
+    private final JwtAuthenticationProvider provider;
+    private final CacheManager cacheManager;
+    private final Cache<String, CustomAuthentication> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer verification;
+    private final LongAdder verifiedTokens = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+
+    public JwtAuthenticationCache(JwtDecoder jwtDecoder, JwtAuthenticationConverter converter,
+            MeterRegistry meterRegistry, @Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.provider = new JwtAuthenticationProvider(jwtDecoder);
+        this.provider.setJwtAuthenticationConverter(converter);
+
+        this.cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
+                .withCache("jwt-authentications", CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(String.class, CustomAuthentication.class,
+                                ResourcePoolsBuilder.heap(maximumSize))
+                        .withExpiry(new UntilTokenExpires()))
+                .build(true);
+        this.cache = cacheManager.getCache("jwt-authentications", String.class, CustomAuthentication.class);
+
+        this.hits = Counter.builder("jwt.authentication.cache.requests").tag("result", "hit")
+                .description("Bearer tokens authenticated from the cache").register(meterRegistry);
+        this.misses = Counter.builder("jwt.authentication.cache.requests").tag("result", "miss")
+                .description("Bearer tokens that needed a full signature check").register(meterRegistry);
+        this.verification = Timer.builder("jwt.verification")
+                .description("Signature check and conversion of bearer tokens not in the cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.authentication.cache.cpu.saved", this, JwtAuthenticationCache::savedSeconds)
+                .baseUnit("seconds")
+                .description("Cache hits times the mean verification time")
+                .register(meterRegistry);
+    }
+
+    // AuthenticationManager for the resource server's bearer tokens
+    public Authentication authenticate(Authentication authentication) {
+        BearerTokenAuthenticationToken bearer = (BearerTokenAuthenticationToken) authentication;
+        String key = digest(bearer.getToken());
+
+        CustomAuthentication cached = cache.get(key);
+        if (cached != null) {
+            hits.increment();
+            // Each request gets its own instance, carrying its own request details
+            return cached.withDetails(bearer.getDetails());
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        // Invalid tokens throw here and are never cached
+        Authentication verified = provider.authenticate(bearer);
+        long elapsed = System.nanoTime() - start;
+        verification.record(Duration.ofNanos(elapsed));
+        verifiedTokens.increment();
+        verificationNanos.add(elapsed);
+
+        if (verified instanceof CustomAuthentication custom && custom.getToken().getExpiresAt() != null) {
+            cache.put(key, custom);
+        }
+        return verified;
+    }
+
+    private double savedSeconds() {
+        long verified = verifiedTokens.sum();
+        if (verified == 0) {
+            return 0;
+        }
+        return hits.count() * (verificationNanos.sum() / (double) verified) / 1_000_000_000.0;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        cacheManager.close();
+    }
+
+    // An entry lives until the token's exp claim, never longer
+    private static final class UntilTokenExpires implements ExpiryPolicy<String, CustomAuthentication> {
+
+        @Override
+        public Duration getExpiryForCreation(String key, CustomAuthentication value) {
+            Duration remaining = Duration.between(Instant.now(), value.getToken().getExpiresAt());
+            return remaining.isNegative() ? Duration.ZERO : remaining;
+        }
+
+        @Override
+        public Duration getExpiryForAccess(String key, Supplier<? extends CustomAuthentication> value) {
+            return null;
+        }
+
+        @Override
+        public Duration getExpiryForUpdate(String key, Supplier<? extends CustomAuthentication> oldValue,
+                CustomAuthentication newValue) {
+            return getExpiryForCreation(key, newValue);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.server.ResourceServer.config;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 
@@ -16,10 +18,15 @@ public class JwtAuthenticationConverter implements Converter<Jwt, CustomAuthenti
 
     @Override
     public CustomAuthentication convert(Jwt source) {
-        List<GrantedAuthority> authorities = List.of(() -> "read and write");
+        List<String> roles = source.hasClaim("roles") ? source.getClaimAsStringList("roles") : List.of();
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(() -> "read and write");
+        roles.forEach(role -> authorities.add(new SimpleGrantedAuthority("ROLE_" + role)));
         String priority = String.valueOf(source.getClaims().get("priority"));
+        // Present on tokens issued to users; lets endpoints find the user without a username query
+        Long userId = source.getClaims().get("user_id") instanceof Number id ? id.longValue() : null;
         // logger.info("GOT SOMETHING IN CONVERTER");
-        return new CustomAuthentication(source, authorities, priority);
+        return new CustomAuthentication(source, authorities, priority, userId, roles);
     }
 
 }
@@ -0,0 +1,76 @@
+package com.server.ResourceServer.config;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Runs each authenticated API request inside the lane its token's priority claim selects.
+// Once admitted to its lane, a request also takes an adaptive concurrency permit: limited lanes
+// get 503 while the limit is reached, HIGH is always let through but still counts. Lanes come
+// first, so a busy LOW lane cannot use up the limit ahead of HIGH, and the latency the limit
+// measures starts after the lane queue. Added to the security chain right after bearer-token
+// authentication; not a servlet filter bean.
+public class PriorityLaneFilter extends OncePerRequestFilter {
+
+    private final PriorityLanes lanes;
+    private final AdaptiveConcurrencyLimit limit;
+
+    public PriorityLaneFilter(PriorityLanes lanes, AdaptiveConcurrencyLimit limit) {
+        this.lanes = lanes;
+        this.limit = limit;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof CustomAuthentication custom)) {
+            // Unauthenticated requests are turned away by authorization without doing any work
+            chain.doFilter(request, response);
+            return;
+        }
+
+        PriorityLanes.Lane lane = lanes.laneFor(custom.getPriority());
+        switch (lane.acquire()) {
+            case ADMITTED -> {
+                try {
+                    Optional<AdaptiveConcurrencyLimit.Permit> permit =
+                            lane.isLimited() ? limit.tryAcquire() : Optional.of(limit.admit());
+                    if (permit.isEmpty()) {
+                        reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+                        return;
+                    }
+                    try {
+                        chain.doFilter(request, response);
+                    } finally {
+                        permit.get().release();
+                    }
+                } finally {
+                    lane.release();
+                }
+            }
+            case QUEUE_FULL -> reject(response, HttpStatus.TOO_MANY_REQUESTS);
+            case TIMED_OUT -> reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    }
+}
@@ -0,0 +1,129 @@
+package com.server.ResourceServer.config;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Bounded execution lanes for API requests, chosen by the token's priority claim, which the
+// AuthorizationServer sets per client: HIGH for users of the web app, LOW for client_credentials.
+// Each lane has its own permits, so HIGH callers keep reserved capacity however busy
+// the other lanes are, plus a bounded queue with a maximum wait. A request that finds
+// the queue full is rejected at once (429); one that waits too long is shed (503).
+// Requests of limited lanes (all but HIGH) are also refused while the adaptive concurrency
+// limit is reached, see PriorityLaneFilter.
+@Component
+public class PriorityLanes {
+
+    public enum Admission { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private final Lane high;
+    private final Lane normal;
+    private final Lane low;
+
+    public PriorityLanes(Environment environment, MeterRegistry meterRegistry) {
+        this.high = new Lane("high", environment, 32, 16, Duration.ofMillis(100), false, meterRegistry);
+        this.normal = new Lane("normal", environment, 64, 256, Duration.ofSeconds(1), true, meterRegistry);
+        this.low = new Lane("low", environment, 8, 32, Duration.ofMillis(500), true, meterRegistry);
+    }
+
+    // HIGH and LOW pick their lanes; anything else, including no claim, is NORMAL
+    public Lane laneFor(String priority) {
+        if (priority == null) {
+            return normal;
+        }
+        return switch (priority.toUpperCase(Locale.ROOT)) {
+            case "HIGH" -> high;
+            case "LOW" -> low;
+            default -> normal;
+        };
+    }
+
+    public static final class Lane {
+        private final String name;
+        private final Semaphore permits;
+        private final int capacity;
+        private final int queueLimit;
+        private final Duration maxWait;
+        // Subject to the adaptive concurrency limit
+        private final boolean limited;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        private final Timer waitTime;
+        private final Counter queueFull;
+        private final Counter timedOut;
+
+        Lane(String name, Environment environment, int defaultPermits, int defaultQueue, Duration defaultMaxWait,
+                boolean limited, MeterRegistry meterRegistry) {
+            String prefix = "lanes." + name + ".";
+            this.name = name;
+            this.capacity = environment.getProperty(prefix + "permits", Integer.class, defaultPermits);
+            this.queueLimit = environment.getProperty(prefix + "queue", Integer.class, defaultQueue);
+            this.maxWait = Duration.parse(environment.getProperty(prefix + "max-wait", defaultMaxWait.toString()));
+            this.limited = limited;
+            // Fair, so queued requests are admitted in arrival order
+            this.permits = new Semaphore(capacity, true);
+
+            Gauge.builder("lanes.queue.depth", waiting, AtomicInteger::get).tag("lane", name)
+                    .description("Requests waiting for a permit").register(meterRegistry);
+            Gauge.builder("lanes.active", permits, p -> capacity - p.availablePermits()).tag("lane", name)
+                    .description("Requests holding a permit").register(meterRegistry);
+            this.waitTime = Timer.builder("lanes.wait").tag("lane", name)
+                    .description("Time admitted requests waited for a permit").register(meterRegistry);
+            this.queueFull = Counter.builder("lanes.rejected").tag("lane", name).tag("reason", "queue-full")
+                    .description("Requests rejected without waiting").register(meterRegistry);
+            this.timedOut = Counter.builder("lanes.rejected").tag("lane", name).tag("reason", "timeout")
+                    .description("Requests shed after waiting the maximum time").register(meterRegistry);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isLimited() {
+            return limited;
+        }
+
+        // Take a permit, waiting in the lane's queue if there is room; release() when ADMITTED
+        public Admission acquire() {
+            long start = System.nanoTime();
+            try {
+                // The timed form respects fairness; the untimed tryAcquire() would jump the queue
+                if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                    waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return Admission.ADMITTED;
+                }
+                if (waiting.incrementAndGet() > queueLimit) {
+                    waiting.decrementAndGet();
+                    queueFull.increment();
+                    return Admission.QUEUE_FULL;
+                }
+                try {
+                    if (permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                        waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        return Admission.ADMITTED;
+                    }
+                } finally {
+                    waiting.decrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            timedOut.increment();
+            return Admission.TIMED_OUT;
+        }
+
+        public void release() {
+            permits.release();
+        }
+    }
+}
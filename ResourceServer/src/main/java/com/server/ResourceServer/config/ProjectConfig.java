@@ -1,5 +1,9 @@
 package com.server.ResourceServer.config;
 
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,9 +12,19 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
 @Configuration
 public class ProjectConfig {
     @Value("${keySetURI}")
@@ -25,18 +39,24 @@ public class ProjectConfig {
     @Value("${resourceserver.secret}")
     private String resourceServerClientSecret;
 
-    private final JwtAuthenticationConverter converter;
     private final CorsConfigurationSource corsConfigurationSource;
 
-    public ProjectConfig(JwtAuthenticationConverter converter, CorsConfigurationSource corsConfigurationSource) {
-        this.converter = converter;
+    public ProjectConfig(CorsConfigurationSource corsConfigurationSource) {
         this.corsConfigurationSource = corsConfigurationSource;
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        // Configuring the resource server to use JWTs for authentication
-        http.oauth2ResourceServer(c -> c.jwt(j -> j.jwkSetUri(keySetUri).jwtAuthenticationConverter(converter)));
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+            JwtAuthenticationCache jwtAuthenticationCache, AdaptiveConcurrencyLimit concurrencyLimit,
+            PriorityLanes priorityLanes) throws Exception {
+        // Configuring the resource server to use JWTs for authentication; verified tokens
+        // are converted by JwtAuthenticationConverter and cached until they expire
+        http.oauth2ResourceServer(c -> c.jwt(j -> j.authenticationManager(jwtAuthenticationCache::authenticate)));
+
+        // Admit API requests into the lane of their token's priority claim, then under the
+        // adaptive concurrency limit (which HIGH is exempt from)
+        http.addFilterAfter(new PriorityLaneFilter(priorityLanes, concurrencyLimit),
+                BearerTokenAuthenticationFilter.class);
 
         // Enable CORS
         http
@@ -57,9 +77,46 @@ public class ProjectConfig {
         return http.build();
     }
 
-    // @Bean
-    // public JwtDecoder jwtDecoder() {
-    // return
-    // NimbusJwtDecoder.withJwkSetUri("http://localhost:5173/oauth2/jwks").build();
-    // }
+    // Keys from the AuthorizationServer's JWKS endpoint. The set is refreshed in the background
+    // before it expires; a token with an unknown kid triggers one refetch that concurrent requests
+    // wait on, refetches are rate-limited, and if the endpoint is down the last set keeps being used.
+    @Bean
+    public JWKSource<SecurityContext> jwkSource(JwkSetMetrics metrics,
+            @Value("${jwks.cache-ttl:PT5M}") Duration cacheTtl,
+            @Value("${jwks.refresh-ahead:PT30S}") Duration refreshAhead,
+            @Value("${jwks.refresh-timeout:PT15S}") Duration refreshTimeout,
+            @Value("${jwks.rate-limit-interval:PT30S}") Duration rateLimitInterval,
+            @Value("${jwks.outage-tolerance:PT4H}") Duration outageTolerance,
+            @Value("${jwks.http-timeout:PT2S}") Duration httpTimeout) throws MalformedURLException {
+        ResourceRetriever retriever = new DefaultResourceRetriever((int) httpTimeout.toMillis(),
+                (int) httpTimeout.toMillis(), JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+        return JWKSourceBuilder.<SecurityContext>create(URI.create(keySetUri).toURL(), metrics.timed(retriever))
+                .cache(cacheTtl.toMillis(), refreshTimeout.toMillis(), metrics.listener())
+                .refreshAheadCache(refreshAhead.toMillis(), true, metrics.listener())
+                .rateLimited(rateLimitInterval.toMillis(), metrics.listener())
+                .retrying(metrics.listener())
+                .outageTolerant(outageTolerance.toMillis(), metrics.listener())
+                .build();
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit adaptiveConcurrencyLimit(
+            @Value("${concurrency.initial-limit:20}") int initialLimit,
+            @Value("${concurrency.min-limit:4}") int minLimit,
+            @Value("${concurrency.max-limit:200}") int maxLimit,
+            @Value("${concurrency.latency-target:PT0.25S}") Duration latencyTarget,
+            @Value("${concurrency.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTarget, backoffRatio,
+                System::nanoTime);
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        // Claims (exp, nbf) are checked by NimbusJwtDecoder's validators instead
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        return new NimbusJwtDecoder(processor);
+    }
 }
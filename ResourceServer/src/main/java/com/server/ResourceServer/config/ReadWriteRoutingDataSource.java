@@ -0,0 +1,93 @@
+package com.server.ResourceServer.config;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Hands out replica connections inside read-only transactions and primary connections
+// everywhere else. The lookup happens when a connection is first needed, so this must sit
+// under a LazyConnectionDataSourceProxy: the transaction manager asks for a connection before
+// the transaction's read-only flag is bound, and the proxy defers that until the first statement.
+//
+// Read-your-writes: once a caller commits a write, their read-only transactions stay on the
+// primary for the configured window, so they never see the replica lagging behind their own change.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+
+    private final long readYourWritesNanos;
+    private final LongSupplier nanoClock;
+
+    // Time of each caller's last committed write, least recently written dropped first
+    private final Map<String, Long> lastWrites = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > MAX_TRACKED_WRITERS;
+                }
+            });
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites,
+            LongSupplier nanoClock) {
+        this.readYourWritesNanos = readYourWrites.toNanos();
+        this.nanoClock = nanoClock;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String caller = currentCaller();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit(caller);
+            return Target.PRIMARY;
+        }
+        return wroteRecently(caller) ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    // Whether the current caller is in their read-your-writes window, so their reads use the primary
+    public boolean readsFromPrimary() {
+        return wroteRecently(currentCaller());
+    }
+
+    private boolean wroteRecently(String caller) {
+        if (caller == null || readYourWritesNanos <= 0) {
+            return false;
+        }
+        Long wroteAt = lastWrites.get(caller);
+        return wroteAt != null && nanoClock.getAsLong() - wroteAt < readYourWritesNanos;
+    }
+
+    // Counted from the commit, not the first statement, so a long transaction still gets the full window
+    private void recordWriteOnCommit(String caller) {
+        if (caller == null || readYourWritesNanos <= 0
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(caller, nanoClock.getAsLong());
+            }
+        });
+    }
+
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+}
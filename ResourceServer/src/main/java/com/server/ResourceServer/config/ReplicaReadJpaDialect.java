@@ -0,0 +1,56 @@
+package com.server.ResourceServer.config;
+
+import java.sql.SQLException;
+
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+// Read-only transactions may be served by a replica that lags the primary. Whatever they put in
+// the second-level cache would then be handed to every later read, primary-routed ones included,
+// until the next write to the same rows. So with a replica configured, read-only sessions run with
+// the cache store mode BYPASS (CacheMode.GET): they still read entities and collections from the
+// cache, which only ever receives what write transactions on the primary loaded, but never add to
+// it. The data source is picked at the first statement, after this runs, so read-only transactions
+// the read-your-writes window keeps on the primary do not populate the cache either. The query
+// cache does not honour the store mode and is off altogether (see DataSourceConfig).
+//
+// Set as the entity manager property rather than Session.setCacheMode: Hibernate copies the
+// property onto every query it creates, where it would override the session's cache mode.
+class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+        Object previous = entityManager.getProperties().getOrDefault(SpecHints.HINT_SPEC_CACHE_STORE_MODE,
+                CacheStoreMode.USE);
+        entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        return new ReadOnlyTransactionData(transactionData, entityManager, previous);
+    }
+
+    // The entity manager can outlive the transaction (open-in-view), so put the store mode back
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnly) {
+            if (readOnly.entityManager().isOpen()) {
+                readOnly.entityManager().setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, readOnly.previousStoreMode());
+            }
+            super.cleanupTransaction(readOnly.transactionData());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReadOnlyTransactionData(Object transactionData, EntityManager entityManager,
+            Object previousStoreMode) {
+    }
+}
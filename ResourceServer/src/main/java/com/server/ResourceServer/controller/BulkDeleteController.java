@@ -0,0 +1,56 @@
+package com.server.ResourceServer.controller;
+
+import com.server.ResourceServer.dto.BulkDeleteJob;
+import com.server.ResourceServer.dto.BulkDeleteRequest;
+import com.server.ResourceServer.service.BulkDeleteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+// Asynchronous delete-many endpoints. A request is accepted with 202 and the
+// job can then be polled at the returned location.
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/bulk-delete")
+public class BulkDeleteController {
+    
+    @Autowired
+    private BulkDeleteService bulkDeleteService;
+    
+    // Delete many users
+    @PostMapping("/users")
+    public ResponseEntity<BulkDeleteJob> deleteUsers(@RequestBody BulkDeleteRequest request) {
+        try {
+            return accepted(bulkDeleteService.deleteUsers(request.getIds()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    // Delete many companies
+    @PostMapping("/companies")
+    public ResponseEntity<BulkDeleteJob> deleteCompanies(@RequestBody BulkDeleteRequest request) {
+        try {
+            return accepted(bulkDeleteService.deleteCompanies(request.getIds()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    // Get job status
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkDeleteJob> getJob(@PathVariable String jobId) {
+        return bulkDeleteService.getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private ResponseEntity<BulkDeleteJob> accepted(BulkDeleteJob job) {
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/bulk-delete/" + job.getId()))
+            .body(job);
+    }
+}
@@ -1,15 +1,24 @@
 package com.server.ResourceServer.controller;
 
+import com.server.ResourceServer.dto.BulkMembershipRequest;
+import com.server.ResourceServer.dto.BulkMembershipResult;
+import com.server.ResourceServer.dto.CompanyFacetsResponse;
+import com.server.ResourceServer.dto.ChangesResponse;
 import com.server.ResourceServer.dto.CompanyDTO;
 import com.server.ResourceServer.dto.CreateCompanyRequest;
+import com.server.ResourceServer.dto.MembershipDTO;
+import com.server.ResourceServer.dto.PageResponse;
+import com.server.ResourceServer.service.CompanyFacets;
 import com.server.ResourceServer.service.CompanyService;
+import com.server.ResourceServer.service.ReadCoalescer;
+import com.server.ResourceServer.service.StaleChangeTokenException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,6 +30,12 @@ public class CompanyController {
     @Autowired
     private CompanyService companyService;
     
+    @Autowired
+    private ReadCoalescer readCoalescer;
+    
+    @Autowired
+    private CompanyFacets companyFacets;
+    
     // Create a new company
     @PostMapping
     public ResponseEntity<CompanyDTO> createCompany(@RequestBody CreateCompanyRequest request) {
@@ -32,19 +47,65 @@ public class CompanyController {
         }
     }
     
-    // Get all companies
+    // Get companies page by page (keyset pagination on id)
+    // Conditional GETs: a matching If-None-Match gets 304 before the DTOs are built
     @GetMapping
-    public ResponseEntity<List<CompanyDTO>> getAllCompanies() {
-        List<CompanyDTO> companies = companyService.getAllCompanies();
+    public ResponseEntity<PageResponse<CompanyDTO>> getAllCompanies(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        String etag = companyService.getCompaniesPageEtag(after, limit);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        PageResponse<CompanyDTO> companies = companyService.getCompaniesPage(after, limit);
+        return ResponseEntity.ok().eTag(etag).body(companies);
+    }
+    
+    // Change feed: pass an ISO-8601 date-time for the first sync, then each response's nextToken
+    @GetMapping(params = "updatedSince")
+    public ResponseEntity<ChangesResponse<CompanyDTO>> getCompanyChanges(
+            @RequestParam String updatedSince,
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            ChangesResponse<CompanyDTO> changes = companyService.getCompanyChanges(updatedSince, limit);
+            return ResponseEntity.ok(changes);
+        } catch (StaleChangeTokenException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    // Facet counts by industry and company size; each facet is filtered by the other parameter
+    @GetMapping("/facets")
+    public ResponseEntity<CompanyFacetsResponse> getFacets(
+            @RequestParam(required = false) String industry,
+            @RequestParam(required = false) String companySize) {
+        return ResponseEntity.ok(companyFacets.getFacets(industry, companySize));
+    }
+    
+    // Get companies filtered by industry and/or company size, page by page (keyset pagination on id)
+    @GetMapping("/browse")
+    public ResponseEntity<PageResponse<CompanyDTO>> browseCompanies(
+            @RequestParam(required = false) String industry,
+            @RequestParam(required = false) String companySize,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
+        PageResponse<CompanyDTO> companies = companyService.getCompaniesPage(industry, companySize, after, limit);
         return ResponseEntity.ok(companies);
     }
     
     // Get company by ID
     @GetMapping("/{id}")
-    public ResponseEntity<CompanyDTO> getCompanyById(@PathVariable Long id) {
+    public ResponseEntity<CompanyDTO> getCompanyById(@PathVariable Long id, WebRequest request) {
         try {
-            CompanyDTO company = companyService.getCompanyById(id);
-            return ResponseEntity.ok(company);
+            String etag = companyService.getCompanyEtag(id);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            CompanyDTO company = readCoalescer.getCompanyById(id);
+            return ResponseEntity.ok().eTag(etag).body(company);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -54,7 +115,7 @@ public class CompanyController {
     @GetMapping("/name/{name}")
     public ResponseEntity<CompanyDTO> getCompanyByName(@PathVariable String name) {
         try {
-            CompanyDTO company = companyService.getCompanyByName(name);
+            CompanyDTO company = readCoalescer.getCompanyByName(name);
             return ResponseEntity.ok(company);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -96,10 +157,21 @@ public class CompanyController {
     
     // Add user to company
     @PostMapping("/{companyId}/users/{userId}")
-    public ResponseEntity<CompanyDTO> addUserToCompany(@PathVariable Long companyId, @PathVariable Long userId) {
+    public ResponseEntity<MembershipDTO> addUserToCompany(@PathVariable Long companyId, @PathVariable Long userId) {
         try {
-            CompanyDTO company = companyService.addUserToCompany(companyId, userId);
-            return ResponseEntity.ok(company);
+            MembershipDTO membership = companyService.addUserToCompany(companyId, userId);
+            return ResponseEntity.ok(membership);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    // Add many users to company
+    @PostMapping("/{companyId}/users")
+    public ResponseEntity<BulkMembershipResult> addUsersToCompany(@PathVariable Long companyId, @RequestBody BulkMembershipRequest request) {
+        try {
+            BulkMembershipResult result = companyService.addUsersToCompany(companyId, request.getUserIds());
+            return ResponseEntity.ok(result);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -107,10 +179,10 @@ public class CompanyController {
     
     // Remove user from company
     @DeleteMapping("/{companyId}/users/{userId}")
-    public ResponseEntity<CompanyDTO> removeUserFromCompany(@PathVariable Long companyId, @PathVariable Long userId) {
+    public ResponseEntity<MembershipDTO> removeUserFromCompany(@PathVariable Long companyId, @PathVariable Long userId) {
         try {
-            CompanyDTO company = companyService.removeUserFromCompany(companyId, userId);
-            return ResponseEntity.ok(company);
+            MembershipDTO membership = companyService.removeUserFromCompany(companyId, userId);
+            return ResponseEntity.ok(membership);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -118,8 +190,12 @@ public class CompanyController {
     
     // Get all companies by user
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Set<CompanyDTO>> getCompaniesByUser(@PathVariable Long userId) {
+    public ResponseEntity<Set<CompanyDTO>> getCompaniesByUser(@PathVariable Long userId, WebRequest request) {
+        String etag = companyService.getCompaniesByUserEtag(userId);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         Set<CompanyDTO> companies = companyService.getCompaniesByUser(userId);
-        return ResponseEntity.ok(companies);
+        return ResponseEntity.ok().eTag(etag).body(companies);
     }
 }
@@ -0,0 +1,36 @@
+package com.server.ResourceServer.controller;
+
+import com.server.ResourceServer.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/export")
+public class ExportController {
+    
+    @Autowired
+    private ExportService exportService;
+    
+    // Export all users as newline-delimited JSON
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(out -> exportService.exportUsers(out));
+    }
+    
+    // Export all companies as newline-delimited JSON
+    @GetMapping("/companies")
+    public ResponseEntity<StreamingResponseBody> exportCompanies() {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(out -> exportService.exportCompanies(out));
+    }
+}
@@ -0,0 +1,54 @@
+package com.server.ResourceServer.controller;
+
+import com.server.ResourceServer.dto.ImportReport;
+import com.server.ResourceServer.service.ImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Bulk import endpoints. Bodies are a JSON array, newline-delimited JSON,
+// or CSV with a header row naming the fields.
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/import")
+public class ImportController {
+    
+    @Autowired
+    private ImportService importService;
+    
+    // Import users (username, email, firstName, lastName)
+    @PostMapping(value = "/users", consumes = {
+        MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"
+    })
+    public ResponseEntity<ImportReport> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importUsers(body, contentType));
+    }
+    
+    // Import companies (name, address, industry, companySize)
+    @PostMapping(value = "/companies", consumes = {
+        MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"
+    })
+    public ResponseEntity<ImportReport> importCompanies(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importCompanies(body, contentType));
+    }
+    
+    // Import memberships (username, companyName)
+    @PostMapping(value = "/memberships", consumes = {
+        MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"
+    })
+    public ResponseEntity<ImportReport> importMemberships(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importMemberships(body, contentType));
+    }
+}
@@ -0,0 +1,73 @@
+package com.server.ResourceServer.controller;
+
+import com.server.ResourceServer.dto.MembershipQueryResponse;
+import com.server.ResourceServer.service.MembershipIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/memberships")
+public class MembershipController {
+    
+    @Autowired
+    private MembershipIndex membershipIndex;
+    
+    // Get user ids that are members of all (match=all) or any (match=any) of the given companies
+    @GetMapping("/users")
+    public ResponseEntity<MembershipQueryResponse> findUsers(
+            @RequestParam List<Long> companyIds,
+            @RequestParam(defaultValue = "all") String match,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            MembershipQueryResponse users = membershipIndex.findUsers(companyIds, matchAll(match), after, limit);
+            return ResponseEntity.ok(users);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    // Get company ids shared by all (match=all) or held by any (match=any) of the given users
+    @GetMapping("/companies")
+    public ResponseEntity<MembershipQueryResponse> findCompanies(
+            @RequestParam List<Long> userIds,
+            @RequestParam(defaultValue = "all") String match,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            MembershipQueryResponse companies = membershipIndex.findCompanies(userIds, matchAll(match), after, limit);
+            return ResponseEntity.ok(companies);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    // Get the member count of each given company
+    @GetMapping("/counts")
+    public ResponseEntity<Map<Long, Integer>> countMembers(@RequestParam List<Long> companyIds) {
+        try {
+            Map<Long, Integer> counts = membershipIndex.countMembers(companyIds);
+            return ResponseEntity.ok(counts);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+    
+    private static boolean matchAll(String match) {
+        return switch (match) {
+            case "all" -> true;
+            case "any" -> false;
+            default -> throw new RuntimeException("match must be all or any");
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.server.ResourceServer.controller;
+
+import com.server.ResourceServer.dto.SearchResponse;
+import com.server.ResourceServer.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/search")
+public class SearchController {
+    
+    @Autowired
+    private SearchService searchService;
+    
+    // Search users and companies by name, email, industry or address; type is all, users or companies
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = SearchService.TYPE_ALL) String type,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            SearchResponse response = searchService.search(q, type, offset, limit);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+}
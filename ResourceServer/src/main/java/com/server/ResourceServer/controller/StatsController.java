@@ -0,0 +1,27 @@
+package com.server.ResourceServer.controller;
+
+import com.server.ResourceServer.dto.StatsDTO;
+import com.server.ResourceServer.service.StatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:5173")
+@RequestMapping("/api/stats")
+public class StatsController {
+    
+    @Autowired
+    private StatsService statsService;
+    
+    // Get dashboard statistics
+    @GetMapping
+    public ResponseEntity<StatsDTO> getStats(@RequestParam(defaultValue = "5") int recent) {
+        StatsDTO stats = statsService.getStats(recent);
+        return ResponseEntity.ok(stats);
+    }
+}
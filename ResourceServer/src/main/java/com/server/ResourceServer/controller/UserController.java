@@ -1,16 +1,22 @@
 package com.server.ResourceServer.controller;
 
+import com.server.ResourceServer.config.CustomAuthentication;
+import com.server.ResourceServer.dto.ChangesResponse;
 import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.dto.MembershipDTO;
+import com.server.ResourceServer.dto.PageResponse;
 import com.server.ResourceServer.dto.UserDTO;
+import com.server.ResourceServer.service.ReadCoalescer;
+import com.server.ResourceServer.service.StaleChangeTokenException;
 import com.server.ResourceServer.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -22,6 +28,9 @@ public class UserController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private ReadCoalescer readCoalescer;
+    
     // Create a new user
     @PostMapping
     public ResponseEntity<UserDTO> createUser(@RequestBody CreateUserRequest request) {
@@ -33,19 +42,46 @@ public class UserController {
         }
     }
     
-    // Get all users
+    // Get users page by page (keyset pagination on id)
+    // Conditional GETs: a matching If-None-Match gets 304 before the DTOs are built
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<PageResponse<UserDTO>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request) {
+        String etag = userService.getUsersPageEtag(after, limit);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        PageResponse<UserDTO> users = userService.getUsersPage(after, limit);
+        return ResponseEntity.ok().eTag(etag).body(users);
+    }
+    
+    // Change feed: pass an ISO-8601 date-time for the first sync, then each response's nextToken
+    @GetMapping(params = "updatedSince")
+    public ResponseEntity<ChangesResponse<UserDTO>> getUserChanges(
+            @RequestParam String updatedSince,
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            ChangesResponse<UserDTO> changes = userService.getUserChanges(updatedSince, limit);
+            return ResponseEntity.ok(changes);
+        } catch (StaleChangeTokenException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(null);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
     }
     
     // Get user by ID
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Long id, WebRequest request) {
         try {
-            UserDTO user = userService.getUserById(id);
-            return ResponseEntity.ok(user);
+            String etag = userService.getUserEtag(id);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            UserDTO user = readCoalescer.getUserById(id);
+            return ResponseEntity.ok().eTag(etag).body(user);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         }
@@ -55,7 +91,7 @@ public class UserController {
     @GetMapping("/username/{username}")
     public ResponseEntity<UserDTO> getUserByUsername(@PathVariable String username) {
         try {
-            UserDTO user = userService.getUserByUsername(username);
+            UserDTO user = readCoalescer.getUserByUsername(username);
             return ResponseEntity.ok(user);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
@@ -90,10 +126,10 @@ public class UserController {
     
     // Add user to company
     @PostMapping("/{userId}/companies/{companyId}")
-    public ResponseEntity<UserDTO> addUserToCompany(@PathVariable Long userId, @PathVariable Long companyId) {
+    public ResponseEntity<MembershipDTO> addUserToCompany(@PathVariable Long userId, @PathVariable Long companyId) {
         try {
-            UserDTO user = userService.addUserToCompany(userId, companyId);
-            return ResponseEntity.ok(user);
+            MembershipDTO membership = userService.addUserToCompany(userId, companyId);
+            return ResponseEntity.ok(membership);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -101,10 +137,10 @@ public class UserController {
     
     // Remove user from company
     @DeleteMapping("/{userId}/companies/{companyId}")
-    public ResponseEntity<UserDTO> removeUserFromCompany(@PathVariable Long userId, @PathVariable Long companyId) {
+    public ResponseEntity<MembershipDTO> removeUserFromCompany(@PathVariable Long userId, @PathVariable Long companyId) {
         try {
-            UserDTO user = userService.removeUserFromCompany(userId, companyId);
-            return ResponseEntity.ok(user);
+            MembershipDTO membership = userService.removeUserFromCompany(userId, companyId);
+            return ResponseEntity.ok(membership);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
@@ -112,9 +148,13 @@ public class UserController {
     
     // Get all users by company
     @GetMapping("/company/{companyId}")
-    public ResponseEntity<Set<UserDTO>> getUsersByCompany(@PathVariable Long companyId) {
+    public ResponseEntity<Set<UserDTO>> getUsersByCompany(@PathVariable Long companyId, WebRequest request) {
+        String etag = userService.getUsersByCompanyEtag(companyId);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         Set<UserDTO> users = userService.getUsersByCompany(companyId);
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok().eTag(etag).body(users);
     }
     
     // Sync current authenticated user from Authorization Server
@@ -140,8 +180,7 @@ public class UserController {
     @GetMapping("/me")
     public ResponseEntity<Map<String, Object>> getCurrentUserInfo(Authentication authentication) {
         try {
-            String username = authentication.getName();
-            UserDTO user = userService.getUserByUsername(username);
+            UserDTO user = userService.getCurrentUser(authUserId(authentication), authentication.getName());
             
             Map<String, Object> response = new HashMap<>();
             response.put("user", user);
@@ -158,4 +197,9 @@ public class UserController {
             return ResponseEntity.ok(response);
         }
     }
+    
+    // AuthorizationServer user id carried by the access token, if any
+    private static Long authUserId(Authentication authentication) {
+        return authentication instanceof CustomAuthentication custom ? custom.getUserId() : null;
+    }
 }
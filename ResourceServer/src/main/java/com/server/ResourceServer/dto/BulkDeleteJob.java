@@ -0,0 +1,95 @@
+package com.server.ResourceServer.dto;
+
+import java.time.LocalDateTime;
+
+// Progress of an asynchronous delete-many request. Updated by the worker
+// thread while clients poll it, hence the volatile fields.
+public class BulkDeleteJob {
+    
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+    
+    private String id;
+    private String type;
+    private int requested;
+    private volatile Status status = Status.PENDING;
+    private volatile int deleted;
+    private volatile String error;
+    private LocalDateTime createdAt;
+    private volatile LocalDateTime finishedAt;
+    
+    // Constructors
+    public BulkDeleteJob() {}
+    
+    public BulkDeleteJob(String id, String type, int requested) {
+        this.id = id;
+        this.type = type;
+        this.requested = requested;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public int getRequested() {
+        return requested;
+    }
+    
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    // Rows actually deleted; ids that did not exist are not counted
+    public int getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(int deleted) {
+        this.deleted = deleted;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
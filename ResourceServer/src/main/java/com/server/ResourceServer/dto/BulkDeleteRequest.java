@@ -0,0 +1,23 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+public class BulkDeleteRequest {
+    private List<Long> ids;
+    
+    // Constructors
+    public BulkDeleteRequest() {}
+    
+    public BulkDeleteRequest(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,23 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+public class BulkMembershipRequest {
+    private List<Long> userIds;
+    
+    // Constructors
+    public BulkMembershipRequest() {}
+    
+    public BulkMembershipRequest(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+    
+    // Getters and Setters
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+    
+    public void setUserIds(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+}
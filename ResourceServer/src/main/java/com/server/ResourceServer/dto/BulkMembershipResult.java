@@ -0,0 +1,54 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+public class BulkMembershipResult {
+    private Long companyId;
+    private int added;
+    private int alreadyMembers;
+    private List<Long> notFound;
+    
+    // Constructors
+    public BulkMembershipResult() {}
+    
+    public BulkMembershipResult(Long companyId, int added, int alreadyMembers, List<Long> notFound) {
+        this.companyId = companyId;
+        this.added = added;
+        this.alreadyMembers = alreadyMembers;
+        this.notFound = notFound;
+    }
+    
+    // Getters and Setters
+    public Long getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+    
+    public int getAdded() {
+        return added;
+    }
+    
+    public void setAdded(int added) {
+        this.added = added;
+    }
+    
+    public int getAlreadyMembers() {
+        return alreadyMembers;
+    }
+    
+    public void setAlreadyMembers(int alreadyMembers) {
+        this.alreadyMembers = alreadyMembers;
+    }
+    
+    // Requested user ids that do not exist; they were skipped
+    public List<Long> getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(List<Long> notFound) {
+        this.notFound = notFound;
+    }
+}
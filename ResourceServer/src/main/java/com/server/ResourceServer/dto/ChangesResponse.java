@@ -0,0 +1,55 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+// One page of the change feed. Pass nextToken as updatedSince to get the next page;
+// when hasMore is false the client is caught up and polls again later with the same token.
+public class ChangesResponse<T> {
+    private List<T> items;
+    private List<Long> deletedIds;
+    private String nextToken;
+    private boolean hasMore;
+    
+    // Constructors
+    public ChangesResponse() {}
+    
+    public ChangesResponse(List<T> items, List<Long> deletedIds, String nextToken, boolean hasMore) {
+        this.items = items;
+        this.deletedIds = deletedIds;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+    
+    public void setDeletedIds(List<Long> deletedIds) {
+        this.deletedIds = deletedIds;
+    }
+    
+    public String getNextToken() {
+        return nextToken;
+    }
+    
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,46 @@
+package com.server.ResourceServer.dto;
+
+import java.util.Map;
+
+public class CompanyFacetsResponse {
+    // Companies matching both filters
+    private long total;
+    // Counts per industry under the companySize filter, largest first
+    private Map<String, Long> industries;
+    // Counts per company size under the industry filter, largest first
+    private Map<String, Long> companySizes;
+    
+    // Constructors
+    public CompanyFacetsResponse() {}
+    
+    public CompanyFacetsResponse(long total, Map<String, Long> industries, Map<String, Long> companySizes) {
+        this.total = total;
+        this.industries = industries;
+        this.companySizes = companySizes;
+    }
+    
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(long total) {
+        this.total = total;
+    }
+    
+    public Map<String, Long> getIndustries() {
+        return industries;
+    }
+    
+    public void setIndustries(Map<String, Long> industries) {
+        this.industries = industries;
+    }
+    
+    public Map<String, Long> getCompanySizes() {
+        return companySizes;
+    }
+    
+    public void setCompanySizes(Map<String, Long> companySizes) {
+        this.companySizes = companySizes;
+    }
+}
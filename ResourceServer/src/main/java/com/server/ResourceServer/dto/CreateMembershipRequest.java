@@ -0,0 +1,31 @@
+package com.server.ResourceServer.dto;
+
+public class CreateMembershipRequest {
+    private String username;
+    private String companyName;
+    
+    // Constructors
+    public CreateMembershipRequest() {}
+    
+    public CreateMembershipRequest(String username, String companyName) {
+        this.username = username;
+        this.companyName = companyName;
+    }
+    
+    // Getters and Setters
+    public String getUsername() {
+        return username;
+    }
+    
+    public void setUsername(String username) {
+        this.username = username;
+    }
+    
+    public String getCompanyName() {
+        return companyName;
+    }
+    
+    public void setCompanyName(String companyName) {
+        this.companyName = companyName;
+    }
+}
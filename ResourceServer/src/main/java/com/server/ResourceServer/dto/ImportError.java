@@ -0,0 +1,32 @@
+package com.server.ResourceServer.dto;
+
+public class ImportError {
+    private long row;
+    private String message;
+    
+    // Constructors
+    public ImportError() {}
+    
+    public ImportError(long row, String message) {
+        this.row = row;
+        this.message = message;
+    }
+    
+    // Getters and Setters
+    // 1-based position of the row in the uploaded document, header excluded
+    public long getRow() {
+        return row;
+    }
+    
+    public void setRow(long row) {
+        this.row = row;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
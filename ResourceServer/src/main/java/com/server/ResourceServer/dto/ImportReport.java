@@ -0,0 +1,51 @@
+package com.server.ResourceServer.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private long received;
+    private long imported;
+    private long elapsedMillis;
+    private List<ImportError> errors = new ArrayList<>();
+    
+    // Constructors
+    public ImportReport() {}
+    
+    // Getters and Setters
+    public long getReceived() {
+        return received;
+    }
+    
+    public void setReceived(long received) {
+        this.received = received;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public List<ImportError> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<ImportError> errors) {
+        this.errors = errors;
+    }
+    
+    public void addError(long row, String message) {
+        this.errors.add(new ImportError(row, message));
+    }
+}
@@ -0,0 +1,53 @@
+package com.server.ResourceServer.dto;
+
+public class MembershipDTO {
+    private Long userId;
+    private Long companyId;
+    private boolean member;
+    private boolean changed;
+    
+    // Constructors
+    public MembershipDTO() {}
+    
+    public MembershipDTO(Long userId, Long companyId, boolean member, boolean changed) {
+        this.userId = userId;
+        this.companyId = companyId;
+        this.member = member;
+        this.changed = changed;
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getCompanyId() {
+        return companyId;
+    }
+    
+    public void setCompanyId(Long companyId) {
+        this.companyId = companyId;
+    }
+    
+    // Whether the user belongs to the company after the request
+    public boolean isMember() {
+        return member;
+    }
+    
+    public void setMember(boolean member) {
+        this.member = member;
+    }
+    
+    // False when the request was a no-op (already added / already removed)
+    public boolean isChanged() {
+        return changed;
+    }
+    
+    public void setChanged(boolean changed) {
+        this.changed = changed;
+    }
+}
@@ -0,0 +1,55 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+public class MembershipQueryResponse {
+    private long total;
+    private List<Long> items;
+    private Long nextCursor;
+    // Time spent in the index, including building the page of ids
+    private long indexMicros;
+    
+    // Constructors
+    public MembershipQueryResponse() {}
+    
+    public MembershipQueryResponse(long total, List<Long> items, Long nextCursor, long indexMicros) {
+        this.total = total;
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.indexMicros = indexMicros;
+    }
+    
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(long total) {
+        this.total = total;
+    }
+    
+    public List<Long> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<Long> items) {
+        this.items = items;
+    }
+    
+    // Id to pass as "after" to fetch the next page, null on the last page
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public long getIndexMicros() {
+        return indexMicros;
+    }
+    
+    public void setIndexMicros(long indexMicros) {
+        this.indexMicros = indexMicros;
+    }
+}
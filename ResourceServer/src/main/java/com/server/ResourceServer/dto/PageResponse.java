@@ -0,0 +1,34 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+public class PageResponse<T> {
+    private List<T> items;
+    private Long nextCursor;
+    
+    // Constructors
+    public PageResponse() {}
+    
+    public PageResponse(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    // Id to pass as "after" to fetch the next page, null on the last page
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,62 @@
+package com.server.ResourceServer.dto;
+
+// One search result: either a user or a company, with its relevance score
+public class SearchHit {
+    private String type;
+    private Long id;
+    private int score;
+    private UserDTO user;
+    private CompanyDTO company;
+    
+    // Constructors
+    public SearchHit() {}
+    
+    public SearchHit(String type, Long id, int score, UserDTO user, CompanyDTO company) {
+        this.type = type;
+        this.id = id;
+        this.score = score;
+        this.user = user;
+        this.company = company;
+    }
+    
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public void setScore(int score) {
+        this.score = score;
+    }
+    
+    public UserDTO getUser() {
+        return user;
+    }
+    
+    public void setUser(UserDTO user) {
+        this.user = user;
+    }
+    
+    public CompanyDTO getCompany() {
+        return company;
+    }
+    
+    public void setCompany(CompanyDTO company) {
+        this.company = company;
+    }
+}
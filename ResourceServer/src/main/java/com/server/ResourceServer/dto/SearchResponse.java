@@ -0,0 +1,77 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+
+public class SearchResponse {
+    private String query;
+    private int total;
+    // A prefix term matched too many words and was matched as a whole word only; a longer term
+    // finds what it would have expanded to
+    private boolean truncated;
+    private int offset;
+    private List<SearchHit> items;
+    // Time spent in the index, excluding loading the DTOs of the page
+    private long indexMicros;
+    
+    // Constructors
+    public SearchResponse() {}
+    
+    public SearchResponse(String query, int total, boolean truncated, int offset, List<SearchHit> items,
+                          long indexMicros) {
+        this.query = query;
+        this.total = total;
+        this.truncated = truncated;
+        this.offset = offset;
+        this.items = items;
+        this.indexMicros = indexMicros;
+    }
+    
+    // Getters and Setters
+    public String getQuery() {
+        return query;
+    }
+    
+    public void setQuery(String query) {
+        this.query = query;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public boolean isTruncated() {
+        return truncated;
+    }
+    
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+    
+    public int getOffset() {
+        return offset;
+    }
+    
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+    
+    public List<SearchHit> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<SearchHit> items) {
+        this.items = items;
+    }
+    
+    public long getIndexMicros() {
+        return indexMicros;
+    }
+    
+    public void setIndexMicros(long indexMicros) {
+        this.indexMicros = indexMicros;
+    }
+}
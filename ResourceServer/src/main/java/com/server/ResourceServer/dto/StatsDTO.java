@@ -0,0 +1,65 @@
+package com.server.ResourceServer.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class StatsDTO {
+    private long totalUsers;
+    private long totalCompanies;
+    private List<UserDTO> recentUsers;
+    private List<CompanyDTO> recentCompanies;
+    private Map<String, Long> companiesByIndustry;
+    
+    // Constructors
+    public StatsDTO() {}
+    
+    public StatsDTO(long totalUsers, long totalCompanies, List<UserDTO> recentUsers,
+                    List<CompanyDTO> recentCompanies, Map<String, Long> companiesByIndustry) {
+        this.totalUsers = totalUsers;
+        this.totalCompanies = totalCompanies;
+        this.recentUsers = recentUsers;
+        this.recentCompanies = recentCompanies;
+        this.companiesByIndustry = companiesByIndustry;
+    }
+    
+    // Getters and Setters
+    public long getTotalUsers() {
+        return totalUsers;
+    }
+    
+    public void setTotalUsers(long totalUsers) {
+        this.totalUsers = totalUsers;
+    }
+    
+    public long getTotalCompanies() {
+        return totalCompanies;
+    }
+    
+    public void setTotalCompanies(long totalCompanies) {
+        this.totalCompanies = totalCompanies;
+    }
+    
+    public List<UserDTO> getRecentUsers() {
+        return recentUsers;
+    }
+    
+    public void setRecentUsers(List<UserDTO> recentUsers) {
+        this.recentUsers = recentUsers;
+    }
+    
+    public List<CompanyDTO> getRecentCompanies() {
+        return recentCompanies;
+    }
+    
+    public void setRecentCompanies(List<CompanyDTO> recentCompanies) {
+        this.recentCompanies = recentCompanies;
+    }
+    
+    public Map<String, Long> getCompaniesByIndustry() {
+        return companiesByIndustry;
+    }
+    
+    public void setCompaniesByIndustry(Map<String, Long> companiesByIndustry) {
+        this.companiesByIndustry = companiesByIndustry;
+    }
+}
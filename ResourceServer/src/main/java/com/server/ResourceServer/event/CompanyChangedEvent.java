@@ -0,0 +1,14 @@
+package com.server.ResourceServer.event;
+
+// Published by CompanyService and ImportService whenever a company is created (previous is null),
+// updated, or deleted (current is null). Listeners should react after commit.
+public record CompanyChangedEvent(CompanySnapshot previous, CompanySnapshot current) {
+    
+    public static CompanyChangedEvent created(CompanySnapshot current) {
+        return new CompanyChangedEvent(null, current);
+    }
+    
+    public static CompanyChangedEvent deleted(CompanySnapshot previous) {
+        return new CompanyChangedEvent(previous, null);
+    }
+}
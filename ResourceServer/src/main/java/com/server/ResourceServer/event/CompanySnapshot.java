@@ -0,0 +1,13 @@
+package com.server.ResourceServer.event;
+
+import com.server.ResourceServer.model.Company;
+
+// Immutable copy of a company's scalar fields, safe to hand to after-commit listeners.
+// The version lets listeners drop events that arrive out of commit order.
+public record CompanySnapshot(Long id, Long version, String name, String address, String industry, String companySize) {
+    
+    public static CompanySnapshot of(Company company) {
+        return new CompanySnapshot(company.getId(), company.getVersion(), company.getName(), company.getAddress(),
+            company.getIndustry(), company.getCompanySize());
+    }
+}
@@ -0,0 +1,14 @@
+package com.server.ResourceServer.event;
+
+import java.util.Collection;
+import java.util.List;
+
+// Published by UserService, CompanyService and ImportService when memberships are added or removed.
+// Both sides' DTOs carry the other side's ids, so both sets of ids are affected. The changed pairs
+// are among userIds x companyIds; listeners that need them read the pairs' committed state.
+public record MembershipChangedEvent(Collection<Long> userIds, Collection<Long> companyIds) {
+    
+    public static MembershipChangedEvent of(Long userId, Long companyId) {
+        return new MembershipChangedEvent(List.of(userId), List.of(companyId));
+    }
+}
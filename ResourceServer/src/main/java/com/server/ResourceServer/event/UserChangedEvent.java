@@ -0,0 +1,14 @@
+package com.server.ResourceServer.event;
+
+// Published by UserService and ImportService whenever a user is created (previous is null),
+// updated, or deleted (current is null). Listeners should react after commit.
+public record UserChangedEvent(UserSnapshot previous, UserSnapshot current) {
+    
+    public static UserChangedEvent created(UserSnapshot current) {
+        return new UserChangedEvent(null, current);
+    }
+    
+    public static UserChangedEvent deleted(UserSnapshot previous) {
+        return new UserChangedEvent(previous, null);
+    }
+}
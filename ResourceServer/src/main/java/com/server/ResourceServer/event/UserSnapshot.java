@@ -0,0 +1,13 @@
+package com.server.ResourceServer.event;
+
+import com.server.ResourceServer.model.User;
+
+// Immutable copy of a user's scalar fields, safe to hand to after-commit listeners.
+// The version lets listeners drop events that arrive out of commit order.
+public record UserSnapshot(Long id, Long version, String username, String email, String firstName, String lastName) {
+    
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getVersion(), user.getUsername(), user.getEmail(),
+            user.getFirstName(), user.getLastName());
+    }
+}
@@ -1,17 +1,31 @@
 package com.server.ResourceServer.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "companies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "companies", indexes = {
+    @Index(name = "idx_companies_created_at", columnList = "created_at"),
+    // Change feed cursor (updatedAt, id)
+    @Index(name = "idx_companies_updated_at", columnList = "updated_at, id"),
+    // Facet filters: equality on the column, then keyset pages along id
+    @Index(name = "idx_companies_industry", columnList = "industry, id"),
+    @Index(name = "idx_companies_company_size", columnList = "company_size, id"),
+    @Index(name = "idx_companies_industry_size", columnList = "industry, company_size, id")
+})
 public class Company {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companies_seq")
+    @SequenceGenerator(name = "companies_seq", sequenceName = "companies_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -32,9 +46,14 @@ public class Company {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Bumped on every change, including membership changes; the source of the ETag
+    @Version
+    private Long version;
+    
     // Many-to-Many relationship with User (inverse side)
     @JsonIgnore
     @ManyToMany(mappedBy = "companies", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<User> users = new HashSet<>();
     
     // Constructors
@@ -109,6 +128,10 @@ public class Company {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public Set<User> getUsers() {
         return users;
     }
@@ -0,0 +1,55 @@
+package com.server.ResourceServer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Record of a deleted user or company, so the change feed can report deletes
+@Entity
+@Table(name = "tombstones", indexes = {
+    @Index(name = "idx_tombstones_type_deleted_at", columnList = "entity_type, deleted_at, id")
+})
+public class Tombstone {
+    
+    public static final String USER = "user";
+    public static final String COMPANY = "company";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tombstones_seq")
+    @SequenceGenerator(name = "tombstones_seq", sequenceName = "tombstones_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "entity_type", nullable = false)
+    private String entityType;
+    
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    // Constructors
+    public Tombstone() {}
+    
+    public Tombstone(String entityType, Long entityId, LocalDateTime deletedAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getEntityType() {
+        return entityType;
+    }
+    
+    public Long getEntityId() {
+        return entityId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
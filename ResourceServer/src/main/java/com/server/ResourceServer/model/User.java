@@ -1,16 +1,26 @@
 package com.server.ResourceServer.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created_at", columnList = "created_at"),
+    // Change feed cursor (updatedAt, id)
+    @Index(name = "idx_users_updated_at", columnList = "updated_at, id")
+})
 public class User {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -31,13 +41,20 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Bumped on every change, including membership changes; the source of the ETag
+    @Version
+    private Long version;
+    
     // Many-to-Many relationship with Company
     @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
         name = "user_company",
         joinColumns = @JoinColumn(name = "user_id"),
-        inverseJoinColumns = @JoinColumn(name = "company_id")
+        inverseJoinColumns = @JoinColumn(name = "company_id"),
+        // The primary key is (user_id, company_id); lookups by company need their own index
+        indexes = @Index(name = "idx_user_company_company_id", columnList = "company_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Company> companies = new HashSet<>();
     
     // Constructors
@@ -112,6 +129,10 @@ public class User {
         this.updatedAt = updatedAt;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
     public Set<Company> getCompanies() {
         return companies;
     }
@@ -1,26 +1,98 @@
 package com.server.ResourceServer.repository;
 
 import com.server.ResourceServer.model.Company;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface CompanyRepository extends JpaRepository<Company, Long> {
     
+    // Served from the query cache while the companies table is unchanged (no query cache with a replica, see DataSourceConfig)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Company> findByName(String name);
     
     boolean existsByName(String name);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Set<Company> findByIndustry(String industry);
     
+    // Set-wise uniqueness check for bulk imports
+    @Query("SELECT c.name FROM Company c WHERE c.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+    
+    @Query("SELECT new com.server.ResourceServer.repository.IdMapping(c.id, c.name) FROM Company c WHERE c.name IN :names")
+    List<IdMapping> findIdsByNames(@Param("names") Collection<String> names);
+    
+    // Keyset page: seeks on the primary key index instead of skipping rows
+    List<Company> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    // Filtered keyset pages, seeking on the (industry, id) and (company_size, id) indexes
+    List<Company> findByIndustryAndIdGreaterThanOrderByIdAsc(String industry, Long id, Limit limit);
+    
+    List<Company> findByCompanySizeAndIdGreaterThanOrderByIdAsc(String companySize, Long id, Limit limit);
+    
+    List<Company> findByIndustryAndCompanySizeAndIdGreaterThanOrderByIdAsc(String industry, String companySize,
+                                                                           Long id, Limit limit);
+    
     @Query("SELECT c FROM Company c JOIN FETCH c.users WHERE c.id = :id")
     Optional<Company> findByIdWithUsers(@Param("id") Long id);
     
     @Query("SELECT c FROM Company c JOIN c.users u WHERE u.id = :userId")
     Set<Company> findCompaniesByUserId(@Param("userId") Long userId);
+    
+    // Most recently created companies, read backwards along the created_at index
+    List<Company> findAllByOrderByCreatedAtDesc(Limit limit);
+    
+    @Query("SELECT c.industry AS industry, COUNT(c) AS count FROM Company c WHERE c.industry IS NOT NULL GROUP BY c.industry")
+    List<IndustryCountView> countByIndustry();
+    
+    @Query("SELECT c.industry AS industry, c.companySize AS companySize, COUNT(c) AS count FROM Company c " +
+           "GROUP BY c.industry, c.companySize")
+    List<FacetCountView> countByIndustryAndCompanySize();
+    
+    // Membership pairs for a batch of companies, read straight from the join table
+    // Results are cached per id batch; MembershipRepository evicts them on every join-table write
+    @Query(value = "SELECT uc.user_id AS userId, uc.company_id AS companyId FROM user_company uc WHERE uc.company_id IN (:companyIds)",
+           nativeQuery = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "membership-queries"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_company")
+    })
+    List<MembershipView> findMembershipsByCompanyIds(@Param("companyIds") Collection<Long> companyIds);
+    
+    // Bulk delete without loading the entities; memberships must be removed first
+    @Modifying
+    @Query("DELETE FROM Company c WHERE c.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // (id, version) of a page, for the list ETag
+    @Query("SELECT new com.server.ResourceServer.repository.IdVersion(c.id, c.version) FROM Company c WHERE c.id > :after ORDER BY c.id")
+    List<IdVersion> findVersionsAfter(@Param("after") Long after, Limit limit);
+    
+    @Query("SELECT new com.server.ResourceServer.repository.IdVersion(c.id, c.version) FROM Company c JOIN c.users u WHERE u.id = :userId ORDER BY c.id")
+    List<IdVersion> findVersionsByUserId(@Param("userId") Long userId);
+    
+    // Change feed: companies updated after the (updatedAt, id) cursor and no later than `until`
+    @Query("SELECT c FROM Company c WHERE (c.updatedAt > :since OR (c.updatedAt = :since AND c.id > :afterId)) " +
+           "AND c.updatedAt <= :until ORDER BY c.updatedAt, c.id")
+    List<Company> findChanges(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                              @Param("until") LocalDateTime until, Limit limit);
+    
+    // Which of the given ids exist
+    @Query("SELECT c.id FROM Company c WHERE c.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
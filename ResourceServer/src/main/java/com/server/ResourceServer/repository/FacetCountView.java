@@ -0,0 +1,11 @@
+package com.server.ResourceServer.repository;
+
+// Number of companies with one combination of industry and company size (either may be null)
+public interface FacetCountView {
+    
+    String getIndustry();
+    
+    String getCompanySize();
+    
+    Long getCount();
+}
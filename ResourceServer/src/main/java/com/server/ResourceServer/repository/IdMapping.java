@@ -0,0 +1,21 @@
+package com.server.ResourceServer.repository;
+
+// Entity id resolved from a natural key (username, company name)
+public class IdMapping {
+    
+    private final Long id;
+    private final String key;
+    
+    public IdMapping(Long id, String key) {
+        this.id = id;
+        this.key = key;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,21 @@
+package com.server.ResourceServer.repository;
+
+// Entity id with its current @Version, enough to compute an ETag without loading the entity
+public class IdVersion {
+    
+    private final Long id;
+    private final Long version;
+    
+    public IdVersion(Long id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+}
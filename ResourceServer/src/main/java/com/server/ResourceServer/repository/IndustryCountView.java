@@ -0,0 +1,9 @@
+package com.server.ResourceServer.repository;
+
+// Number of companies in one industry
+public interface IndustryCountView {
+    
+    String getIndustry();
+    
+    Long getCount();
+}
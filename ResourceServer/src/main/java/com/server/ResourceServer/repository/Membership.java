@@ -0,0 +1,23 @@
+package com.server.ResourceServer.repository;
+
+// A (user, company) pair to be written to the user_company join table
+public class Membership implements MembershipView {
+    
+    private final Long userId;
+    private final Long companyId;
+    
+    public Membership(Long userId, Long companyId) {
+        this.userId = userId;
+        this.companyId = companyId;
+    }
+    
+    @Override
+    public Long getUserId() {
+        return userId;
+    }
+    
+    @Override
+    public Long getCompanyId() {
+        return companyId;
+    }
+}
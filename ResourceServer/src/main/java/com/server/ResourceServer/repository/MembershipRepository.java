@@ -0,0 +1,176 @@
+package com.server.ResourceServer.repository;
+
+import com.server.ResourceServer.model.Company;
+import com.server.ResourceServer.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Direct access to the user_company join table, for writes that should not
+// load either side of the User.companies / Company.users association.
+// A membership is part of both sides' representation, so every change bumps
+// the version and updated_at of the users and companies it touches.
+// These writes bypass Hibernate, so each one also evicts the second-level
+// cache entries it makes stale: the touched entities, their collection
+// entries and the membership-queries region.
+@Repository
+public class MembershipRepository {
+    
+    private static final String USER_COMPANIES = User.class.getName() + ".companies";
+    private static final String COMPANY_USERS = Company.class.getName() + ".users";
+    private static final String MEMBERSHIP_QUERIES = "membership-queries";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final Cache cache;
+    
+    public MembershipRepository(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+    
+    // Add one pair; returns false if it already existed
+    public boolean insert(Long userId, Long companyId) {
+        boolean inserted;
+        try {
+            inserted = jdbcTemplate.update(
+                "INSERT INTO user_company (user_id, company_id) SELECT ?, ? " +
+                "WHERE NOT EXISTS (SELECT 1 FROM user_company WHERE user_id = ? AND company_id = ?)",
+                userId, companyId, userId, companyId) > 0;
+        } catch (DuplicateKeyException e) {
+            // A concurrent request inserted the same pair first
+            return false;
+        }
+        if (inserted) {
+            touch(List.of(userId), List.of(companyId));
+        }
+        return inserted;
+    }
+    
+    // Remove one pair; returns false if it did not exist
+    public boolean delete(Long userId, Long companyId) {
+        boolean deleted = jdbcTemplate.update(
+            "DELETE FROM user_company WHERE user_id = ? AND company_id = ?",
+            userId, companyId) > 0;
+        if (deleted) {
+            touch(List.of(userId), List.of(companyId));
+        }
+        return deleted;
+    }
+    
+    // Remove every membership of the given users (which are about to be deleted)
+    public int deleteByUserIds(Collection<Long> userIds) {
+        namedJdbcTemplate.update(
+            "UPDATE companies SET version = version + 1, updated_at = :now WHERE id IN " +
+            "(SELECT company_id FROM user_company WHERE user_id IN (:userIds))",
+            Map.of("now", LocalDateTime.now(), "userIds", userIds));
+        int deleted = namedJdbcTemplate.update(
+            "DELETE FROM user_company WHERE user_id IN (:userIds)",
+            Map.of("userIds", userIds));
+        // The companies on the other side are unknown here, so drop them all from the cache
+        evict(userIds, null);
+        return deleted;
+    }
+    
+    // Remove every membership of the given companies (which are about to be deleted)
+    public int deleteByCompanyIds(Collection<Long> companyIds) {
+        namedJdbcTemplate.update(
+            "UPDATE users SET version = version + 1, updated_at = :now WHERE id IN " +
+            "(SELECT user_id FROM user_company WHERE company_id IN (:companyIds))",
+            Map.of("now", LocalDateTime.now(), "companyIds", companyIds));
+        int deleted = namedJdbcTemplate.update(
+            "DELETE FROM user_company WHERE company_id IN (:companyIds)",
+            Map.of("companyIds", companyIds));
+        evict(null, companyIds);
+        return deleted;
+    }
+    
+    // Which of the given users are already members of the company
+    public Set<Long> findMemberIds(Long companyId, Collection<Long> userIds) {
+        return new HashSet<>(namedJdbcTemplate.queryForList(
+            "SELECT user_id FROM user_company WHERE company_id = :companyId AND user_id IN (:userIds)",
+            Map.of("companyId", companyId, "userIds", userIds),
+            Long.class));
+    }
+    
+    // Insert pairs in JDBC batches; callers filter out pairs that already exist
+    public void insertAll(List<? extends MembershipView> memberships, int batchSize) {
+        if (memberships.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO user_company (user_id, company_id) VALUES (?, ?)",
+            memberships,
+            batchSize,
+            (ps, membership) -> {
+                ps.setLong(1, membership.getUserId());
+                ps.setLong(2, membership.getCompanyId());
+            });
+        
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> companyIds = new HashSet<>();
+        for (MembershipView membership : memberships) {
+            userIds.add(membership.getUserId());
+            companyIds.add(membership.getCompanyId());
+        }
+        touch(userIds, companyIds);
+    }
+    
+    // Bump both sides' versions, then evict them
+    private void touch(Collection<Long> userIds, Collection<Long> companyIds) {
+        LocalDateTime now = LocalDateTime.now();
+        namedJdbcTemplate.update(
+            "UPDATE users SET version = version + 1, updated_at = :now WHERE id IN (:ids)",
+            Map.of("now", now, "ids", userIds));
+        namedJdbcTemplate.update(
+            "UPDATE companies SET version = version + 1, updated_at = :now WHERE id IN (:ids)",
+            Map.of("now", now, "ids", companyIds));
+        evict(userIds, companyIds);
+    }
+    
+    // Evict now, and again after commit so a reader cannot re-cache the old rows
+    // between this statement and the commit. A null id set drops the whole role.
+    private void evict(Collection<Long> userIds, Collection<Long> companyIds) {
+        evictNow(userIds, companyIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userIds, companyIds);
+                }
+            });
+        }
+    }
+    
+    private void evictNow(Collection<Long> userIds, Collection<Long> companyIds) {
+        evictSide(User.class, USER_COMPANIES, userIds);
+        evictSide(Company.class, COMPANY_USERS, companyIds);
+        cache.evictQueryRegion(MEMBERSHIP_QUERIES);
+    }
+    
+    private void evictSide(Class<?> entity, String role, Collection<Long> ids) {
+        if (ids == null) {
+            cache.evictEntityData(entity);
+            cache.evictCollectionData(role);
+            return;
+        }
+        for (Long id : ids) {
+            cache.evictEntityData(entity, id);
+            cache.evictCollectionData(role, id);
+        }
+    }
+}
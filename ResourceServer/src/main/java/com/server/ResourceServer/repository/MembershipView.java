@@ -0,0 +1,9 @@
+package com.server.ResourceServer.repository;
+
+// One row of the user_company join table, read without loading either entity
+public interface MembershipView {
+    
+    Long getUserId();
+    
+    Long getCompanyId();
+}
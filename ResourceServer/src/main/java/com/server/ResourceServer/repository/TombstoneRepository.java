@@ -0,0 +1,27 @@
+package com.server.ResourceServer.repository;
+
+import com.server.ResourceServer.model.Tombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+    
+    // Tombstones after the (deletedAt, id) cursor and no later than `until`, in cursor order
+    @Query("SELECT t FROM Tombstone t WHERE t.entityType = :type " +
+           "AND (t.deletedAt > :since OR (t.deletedAt = :since AND t.id > :afterId)) " +
+           "AND t.deletedAt <= :until ORDER BY t.deletedAt, t.id")
+    List<Tombstone> findChanges(@Param("type") String type, @Param("since") LocalDateTime since,
+                                @Param("afterId") Long afterId, @Param("until") LocalDateTime until, Limit limit);
+    
+    @Modifying
+    @Query("DELETE FROM Tombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,17 +1,27 @@
 package com.server.ResourceServer.repository;
 
 import com.server.ResourceServer.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    // Served from the query cache while the users table is unchanged (no query cache with a replica, see DataSourceConfig)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     
     Optional<User> findByEmail(String email);
@@ -20,9 +30,58 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     boolean existsByEmail(String email);
     
+    // Which of the given ids exist
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // Set-wise uniqueness checks for bulk imports
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    @Query("SELECT new com.server.ResourceServer.repository.IdMapping(u.id, u.username) FROM User u WHERE u.username IN :usernames")
+    List<IdMapping> findIdsByUsernames(@Param("usernames") Collection<String> usernames);
+    
+    // Keyset page: seeks on the primary key index instead of skipping rows
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
     @Query("SELECT u FROM User u JOIN FETCH u.companies WHERE u.id = :id")
     Optional<User> findByIdWithCompanies(@Param("id") Long id);
     
     @Query("SELECT u FROM User u JOIN u.companies c WHERE c.id = :companyId")
     Set<User> findUsersByCompanyId(@Param("companyId") Long companyId);
+    
+    // Most recently created users, read backwards along the created_at index
+    List<User> findAllByOrderByCreatedAtDesc(Limit limit);
+    
+    // Membership pairs for a batch of users, read straight from the join table
+    // Results are cached per id batch; MembershipRepository evicts them on every join-table write
+    @Query(value = "SELECT uc.user_id AS userId, uc.company_id AS companyId FROM user_company uc WHERE uc.user_id IN (:userIds)",
+           nativeQuery = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "membership-queries"),
+        @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_company")
+    })
+    List<MembershipView> findMembershipsByUserIds(@Param("userIds") Collection<Long> userIds);
+    
+    // Bulk delete without loading the entities; memberships must be removed first
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // (id, version) of a page, for the list ETag
+    @Query("SELECT new com.server.ResourceServer.repository.IdVersion(u.id, u.version) FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<IdVersion> findVersionsAfter(@Param("after") Long after, Limit limit);
+    
+    @Query("SELECT new com.server.ResourceServer.repository.IdVersion(u.id, u.version) FROM User u JOIN u.companies c WHERE c.id = :companyId ORDER BY u.id")
+    List<IdVersion> findVersionsByCompanyId(@Param("companyId") Long companyId);
+    
+    // Change feed: users updated after the (updatedAt, id) cursor and no later than `until`
+    @Query("SELECT u FROM User u WHERE (u.updatedAt > :since OR (u.updatedAt = :since AND u.id > :afterId)) " +
+           "AND u.updatedAt <= :until ORDER BY u.updatedAt, u.id")
+    List<User> findChanges(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                           @Param("until") LocalDateTime until, Limit limit);
 }
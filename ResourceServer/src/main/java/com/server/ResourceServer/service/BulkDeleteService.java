@@ -0,0 +1,100 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.dto.BulkDeleteJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+// Delete-many requests for cleanup jobs. The work runs on the application task
+// executor in chunks of bulk-delete.batch-size ids; each chunk is its own
+// transaction, so no single write transaction spans the whole request.
+@Service
+public class BulkDeleteService {
+    
+    private static final int MAX_IDS = 100_000;
+    private static final int MAX_TRACKED_JOBS = 1000;
+    
+    @Value("${bulk-delete.batch-size:1000}")
+    private int batchSize;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private CompanyService companyService;
+    
+    // Most recent jobs by id, oldest dropped first
+    private final Map<String, BulkDeleteJob> jobs = Collections.synchronizedMap(
+        new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BulkDeleteJob> eldest) {
+                return size() > MAX_TRACKED_JOBS;
+            }
+        });
+    
+    // Start deleting users
+    public BulkDeleteJob deleteUsers(Collection<Long> ids) {
+        return submit("users", ids, userService::deleteUsers);
+    }
+    
+    // Start deleting companies
+    public BulkDeleteJob deleteCompanies(Collection<Long> ids) {
+        return submit("companies", ids, companyService::deleteCompanies);
+    }
+    
+    // Get job by id
+    public Optional<BulkDeleteJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+    
+    private BulkDeleteJob submit(String type, Collection<Long> ids, ToIntFunction<List<Long>> deleteChunk) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("No ids given");
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+        if (distinct.size() > MAX_IDS) {
+            throw new RuntimeException("Too many ids, maximum is " + MAX_IDS);
+        }
+        
+        BulkDeleteJob job = new BulkDeleteJob(UUID.randomUUID().toString(), type, distinct.size());
+        jobs.put(job.getId(), job);
+        taskExecutor.execute(() -> run(job, distinct, deleteChunk));
+        return job;
+    }
+    
+    private void run(BulkDeleteJob job, List<Long> ids, ToIntFunction<List<Long>> deleteChunk) {
+        job.setStatus(BulkDeleteJob.Status.RUNNING);
+        try {
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                job.setDeleted(job.getDeleted() + deleteChunk.applyAsInt(chunk));
+            }
+            job.setStatus(BulkDeleteJob.Status.COMPLETED);
+        } catch (RuntimeException e) {
+            // Chunks already committed stay deleted
+            job.setError(e.getMessage());
+            job.setStatus(BulkDeleteJob.Status.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+}
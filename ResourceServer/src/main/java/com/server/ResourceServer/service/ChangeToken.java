@@ -0,0 +1,47 @@
+package com.server.ResourceServer.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// High-water mark of the change feed: the last (updatedAt, id) seen on the entity
+// stream and the last (deletedAt, id) seen on the tombstone stream.
+// Handed to clients as an opaque base64url string.
+record ChangeToken(LocalDateTime updatedAt, long updatedId, LocalDateTime deletedAt, long deletedId, boolean issued) {
+    
+    // Either a token from a previous response or, for a first sync, an ISO-8601 date-time
+    static ChangeToken parse(String value) {
+        try {
+            LocalDateTime start = LocalDateTime.parse(value);
+            return new ChangeToken(start, 0, start, 0, false);
+        } catch (DateTimeParseException e) {
+            // Not a date-time, so it must be a token
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException();
+            }
+            return new ChangeToken(fromMicros(Long.parseLong(parts[0])), Long.parseLong(parts[1]),
+                fromMicros(Long.parseLong(parts[2])), Long.parseLong(parts[3]), true);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid updatedSince token: " + value);
+        }
+    }
+    
+    String encode() {
+        String raw = toMicros(updatedAt) + ":" + updatedId + ":" + toMicros(deletedAt) + ":" + deletedId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+    
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+            (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
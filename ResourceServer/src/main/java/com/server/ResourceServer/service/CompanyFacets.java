@@ -0,0 +1,109 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.dto.CompanyFacetsResponse;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.CompanySnapshot;
+import com.server.ResourceServer.repository.CompanyRepository;
+import com.server.ResourceServer.repository.FacetCountView;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Company counts per (industry, company size) cell, so facets cost a walk over the few distinct
+// cells however many companies there are. Seeded with one GROUP BY before the web server takes
+// requests, then moved by each change event's previous and current snapshots after commit.
+// Those deltas commute, so events applied out of commit order still add up. Bulk loads that
+// write without change events (the seed generator) call reload() when they are done.
+@Service
+public class CompanyFacets implements SmartInitializingSingleton {
+    
+    private final Map<Cell, Long> counts = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private CompanyRepository companyRepository;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+    
+    // Recount every cell from the table
+    public void reload() {
+        Map<Cell, Long> fresh = new HashMap<>();
+        for (FacetCountView row : companyRepository.countByIndustryAndCompanySize()) {
+            fresh.put(new Cell(row.getIndustry(), row.getCompanySize()), row.getCount());
+        }
+        counts.keySet().retainAll(fresh.keySet());
+        counts.putAll(fresh);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        Cell previous = cellOf(event.previous());
+        Cell current = cellOf(event.current());
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+        if (previous != null) {
+            add(previous, -1);
+        }
+        if (current != null) {
+            add(current, 1);
+        }
+    }
+    
+    // Get facet counts: industries under the size filter, sizes under the industry filter (null = any)
+    public CompanyFacetsResponse getFacets(String industry, String companySize) {
+        long total = 0;
+        Map<String, Long> industries = new HashMap<>();
+        Map<String, Long> companySizes = new HashMap<>();
+        for (Map.Entry<Cell, Long> entry : counts.entrySet()) {
+            Cell cell = entry.getKey();
+            long count = entry.getValue();
+            boolean industryMatches = industry == null || industry.equals(cell.industry());
+            boolean sizeMatches = companySize == null || companySize.equals(cell.companySize());
+            if (industryMatches && sizeMatches) {
+                total += count;
+            }
+            // Companies without a value are in the total but have no facet entry
+            if (sizeMatches && cell.industry() != null) {
+                industries.merge(cell.industry(), count, Long::sum);
+            }
+            if (industryMatches && cell.companySize() != null) {
+                companySizes.merge(cell.companySize(), count, Long::sum);
+            }
+        }
+        return new CompanyFacetsResponse(total, largestFirst(industries), largestFirst(companySizes));
+    }
+    
+    private void add(Cell cell, long delta) {
+        // A cell that drops to zero disappears from the facets
+        counts.compute(cell, (key, count) -> {
+            long updated = (count == null ? 0 : count) + delta;
+            return updated == 0 ? null : updated;
+        });
+    }
+    
+    private static Cell cellOf(CompanySnapshot snapshot) {
+        return snapshot == null ? null : new Cell(snapshot.industry(), snapshot.companySize());
+    }
+    
+    private static Map<String, Long> largestFirst(Map<String, Long> counts) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+    
+    private record Cell(String industry, String companySize) {}
+}
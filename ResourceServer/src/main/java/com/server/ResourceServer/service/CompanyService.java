@@ -1,16 +1,35 @@
 package com.server.ResourceServer.service;
 
+import com.server.ResourceServer.dto.BulkMembershipResult;
+import com.server.ResourceServer.dto.ChangesResponse;
 import com.server.ResourceServer.dto.CompanyDTO;
 import com.server.ResourceServer.dto.CreateCompanyRequest;
+import com.server.ResourceServer.dto.MembershipDTO;
+import com.server.ResourceServer.dto.PageResponse;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.CompanySnapshot;
+import com.server.ResourceServer.event.MembershipChangedEvent;
 import com.server.ResourceServer.model.Company;
-import com.server.ResourceServer.model.User;
+import com.server.ResourceServer.model.Tombstone;
 import com.server.ResourceServer.repository.CompanyRepository;
+import com.server.ResourceServer.repository.Membership;
+import com.server.ResourceServer.repository.MembershipRepository;
+import com.server.ResourceServer.repository.MembershipView;
 import com.server.ResourceServer.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -18,12 +37,25 @@ import java.util.stream.Collectors;
 @Transactional
 public class CompanyService {
     
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BULK_MEMBERSHIPS = 10_000;
+    private static final int BULK_BATCH_SIZE = 1000;
+    
     @Autowired
     private CompanyRepository companyRepository;
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private MembershipRepository membershipRepository;
+    
+    @Autowired
+    private TombstoneService tombstoneService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     // Create a new company
     public CompanyDTO createCompany(CreateCompanyRequest request) {
         if (companyRepository.existsByName(request.getName())) {
@@ -38,17 +70,97 @@ public class CompanyService {
         );
         
         Company savedCompany = companyRepository.save(company);
+        eventPublisher.publishEvent(CompanyChangedEvent.created(CompanySnapshot.of(savedCompany)));
         return convertToDTO(savedCompany);
     }
     
-    // Get all companies
-    public List<CompanyDTO> getAllCompanies() {
-        return companyRepository.findAll().stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+    // Get a page of companies ordered by id, starting after the given cursor
+    @Transactional(readOnly = true)
+    public PageResponse<CompanyDTO> getCompaniesPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        List<Company> companies = companyRepository.findByIdGreaterThanOrderByIdAsc(
+            after == null ? 0L : after, Limit.of(pageSize + 1));
+        return toPage(companies, pageSize);
+    }
+    
+    // Get a page of companies in an industry and/or of a size (null matches any), ordered by id
+    @Transactional(readOnly = true)
+    public PageResponse<CompanyDTO> getCompaniesPage(String industry, String companySize, Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long cursor = after == null ? 0L : after;
+        Limit lookAhead = Limit.of(pageSize + 1);
+        
+        List<Company> companies;
+        if (industry != null && companySize != null) {
+            companies = companyRepository.findByIndustryAndCompanySizeAndIdGreaterThanOrderByIdAsc(
+                industry, companySize, cursor, lookAhead);
+        } else if (industry != null) {
+            companies = companyRepository.findByIndustryAndIdGreaterThanOrderByIdAsc(industry, cursor, lookAhead);
+        } else if (companySize != null) {
+            companies = companyRepository.findByCompanySizeAndIdGreaterThanOrderByIdAsc(companySize, cursor, lookAhead);
+        } else {
+            companies = companyRepository.findByIdGreaterThanOrderByIdAsc(cursor, lookAhead);
+        }
+        return toPage(companies, pageSize);
+    }
+    
+    // Trim the look-ahead row off a keyset page; its presence means another page exists
+    private PageResponse<CompanyDTO> toPage(List<Company> companies, int pageSize) {
+        Long nextCursor = null;
+        if (companies.size() > pageSize) {
+            companies = companies.subList(0, pageSize);
+            nextCursor = companies.get(pageSize - 1).getId();
+        }
+        
+        return new PageResponse<>(convertToDTOs(companies), nextCursor);
+    }
+    
+    // ETag of a companies page, from the (id, version) of its rows plus the look-ahead row
+    @Transactional(readOnly = true)
+    public String getCompaniesPageEtag(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return Etags.ofList("companies", companyRepository.findVersionsAfter(
+            after == null ? 0L : after, Limit.of(pageSize + 1)));
+    }
+    
+    // Change feed: companies updated or deleted after the updatedSince token, oldest first
+    @Transactional(readOnly = true)
+    public ChangesResponse<CompanyDTO> getCompanyChanges(String updatedSince, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return tombstoneService.changes(Tombstone.COMPANY, updatedSince, pageSize, companyRepository::findChanges,
+            Company::getUpdatedAt, Company::getId, this::convertToDTOs);
+    }
+    
+    // Get the most recently created companies
+    @Transactional(readOnly = true)
+    public List<CompanyDTO> getRecentCompanies(int count) {
+        return convertToDTOs(companyRepository.findAllByOrderByCreatedAtDesc(Limit.of(count)));
+    }
+    
+    // ETag of a company, read from the cached entity without building the DTO
+    @Transactional(readOnly = true)
+    public String getCompanyEtag(Long id) {
+        Company company = companyRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Company not found with id: " + id));
+        return Etags.of("company", id, company.getVersion());
+    }
+    
+    // Get companies by id, in the given order; ids that no longer exist are skipped
+    @Transactional(readOnly = true)
+    public List<CompanyDTO> getCompaniesByIds(List<Long> ids) {
+        Map<Long, Company> byId = new HashMap<>();
+        for (Company company : companyRepository.findAllById(ids)) {
+            byId.put(company.getId(), company);
+        }
+        return convertToDTOs(ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList()));
     }
     
     // Get company by ID
+    @Transactional(readOnly = true)
     public CompanyDTO getCompanyById(Long id) {
         Company company = companyRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Company not found with id: " + id));
@@ -56,6 +168,7 @@ public class CompanyService {
     }
     
     // Get company by name
+    @Transactional(readOnly = true)
     public CompanyDTO getCompanyByName(String name) {
         Company company = companyRepository.findByName(name)
             .orElseThrow(() -> new RuntimeException("Company not found with name: " + name));
@@ -63,10 +176,9 @@ public class CompanyService {
     }
     
     // Get companies by industry
+    @Transactional(readOnly = true)
     public Set<CompanyDTO> getCompaniesByIndustry(String industry) {
-        return companyRepository.findByIndustry(industry).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toSet());
+        return new HashSet<>(convertToDTOs(List.copyOf(companyRepository.findByIndustry(industry))));
     }
     
     // Update company
@@ -80,79 +192,162 @@ public class CompanyService {
             throw new RuntimeException("Company already exists with name: " + request.getName());
         }
         
+        CompanySnapshot previous = CompanySnapshot.of(company);
         company.setName(request.getName());
         company.setAddress(request.getAddress());
         company.setIndustry(request.getIndustry());
         company.setCompanySize(request.getCompanySize());
         
-        Company updatedCompany = companyRepository.save(company);
+        // Flush so the snapshot carries the incremented version
+        Company updatedCompany = companyRepository.saveAndFlush(company);
+        eventPublisher.publishEvent(new CompanyChangedEvent(previous, CompanySnapshot.of(updatedCompany)));
         return convertToDTO(updatedCompany);
     }
     
-    // Delete company
+    // Delete company: drop its memberships, then the row itself
     public void deleteCompany(Long id) {
         Company company = companyRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Company not found with id: " + id));
+        CompanySnapshot previous = CompanySnapshot.of(company);
         
-        // Remove company from all users before deleting
-        for (User user : company.getUsers()) {
-            user.getCompanies().remove(company);
+        membershipRepository.deleteByCompanyIds(List.of(id));
+        companyRepository.deleteAllByIdIn(List.of(id));
+        tombstoneService.record(Tombstone.COMPANY, List.of(id));
+        eventPublisher.publishEvent(CompanyChangedEvent.deleted(previous));
+    }
+    
+    // Delete many companies at once; ids that do not exist are ignored
+    public int deleteCompanies(Collection<Long> ids) {
+        List<CompanySnapshot> existing = companyRepository.findAllById(ids).stream()
+            .map(CompanySnapshot::of)
+            .toList();
+        if (existing.isEmpty()) {
+            return 0;
         }
-        company.getUsers().clear();
+        List<Long> existingIds = existing.stream().map(CompanySnapshot::id).toList();
         
-        companyRepository.delete(company);
+        membershipRepository.deleteByCompanyIds(existingIds);
+        int deleted = companyRepository.deleteAllByIdIn(existingIds);
+        tombstoneService.record(Tombstone.COMPANY, existingIds);
+        existing.forEach(previous -> eventPublisher.publishEvent(CompanyChangedEvent.deleted(previous)));
+        return deleted;
     }
     
     // Add user to company
-    public CompanyDTO addUserToCompany(Long companyId, Long userId) {
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
+    public MembershipDTO addUserToCompany(Long companyId, Long userId) {
+        requireMembershipEnds(companyId, userId);
         
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        boolean added = membershipRepository.insert(userId, companyId);
+        if (added) {
+            eventPublisher.publishEvent(MembershipChangedEvent.of(userId, companyId));
+        }
+        return new MembershipDTO(userId, companyId, true, added);
+    }
+    
+    // Add many users to one company in a single transaction
+    public BulkMembershipResult addUsersToCompany(Long companyId, Collection<Long> userIds) {
+        if (!companyRepository.existsById(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+        if (userIds == null || userIds.isEmpty()) {
+            return new BulkMembershipResult(companyId, 0, 0, List.of());
+        }
+        
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        requested.remove(null);
+        if (requested.size() > MAX_BULK_MEMBERSHIPS) {
+            throw new RuntimeException("Too many user ids, maximum is " + MAX_BULK_MEMBERSHIPS);
+        }
         
-        user.addCompany(company);
-        userRepository.save(user);
+        Set<Long> existingUsers = userRepository.findExistingIds(requested);
+        Set<Long> alreadyMembers = existingUsers.isEmpty()
+            ? Set.of()
+            : membershipRepository.findMemberIds(companyId, existingUsers);
         
-        return convertToDTO(company);
+        List<Membership> toInsert = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long userId : requested) {
+            if (!existingUsers.contains(userId)) {
+                notFound.add(userId);
+            } else if (!alreadyMembers.contains(userId)) {
+                toInsert.add(new Membership(userId, companyId));
+            }
+        }
+        membershipRepository.insertAll(toInsert, BULK_BATCH_SIZE);
+        if (!toInsert.isEmpty()) {
+            eventPublisher.publishEvent(new MembershipChangedEvent(
+                toInsert.stream().map(Membership::getUserId).toList(), List.of(companyId)));
+        }
+        
+        return new BulkMembershipResult(companyId, toInsert.size(), alreadyMembers.size(), notFound);
     }
     
     // Remove user from company
-    public CompanyDTO removeUserFromCompany(Long companyId, Long userId) {
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
-        
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    public MembershipDTO removeUserFromCompany(Long companyId, Long userId) {
+        requireMembershipEnds(companyId, userId);
         
-        user.removeCompany(company);
-        userRepository.save(user);
-        
-        return convertToDTO(company);
+        boolean removed = membershipRepository.delete(userId, companyId);
+        if (removed) {
+            eventPublisher.publishEvent(MembershipChangedEvent.of(userId, companyId));
+        }
+        return new MembershipDTO(userId, companyId, false, removed);
+    }
+    
+    // Check both sides exist without loading either association
+    private void requireMembershipEnds(Long companyId, Long userId) {
+        if (!companyRepository.existsById(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+    }
+    
+    // ETag of a user's company list
+    @Transactional(readOnly = true)
+    public String getCompaniesByUserEtag(Long userId) {
+        return Etags.ofList("user-companies", companyRepository.findVersionsByUserId(userId));
     }
     
     // Get all companies by user
+    @Transactional(readOnly = true)
     public Set<CompanyDTO> getCompaniesByUser(Long userId) {
-        return companyRepository.findCompaniesByUserId(userId).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toSet());
+        return new HashSet<>(convertToDTOs(List.copyOf(companyRepository.findCompaniesByUserId(userId))));
     }
     
     // Convert Company entity to CompanyDTO
     private CompanyDTO convertToDTO(Company company) {
-        Set<Long> userIds = company.getUsers().stream()
-            .map(User::getId)
-            .collect(Collectors.toSet());
-        
-        return new CompanyDTO(
-            company.getId(),
-            company.getName(),
-            company.getAddress(),
-            company.getIndustry(),
-            company.getCompanySize(),
-            company.getCreatedAt(),
-            company.getUpdatedAt(),
-            userIds
-        );
+        return convertToDTOs(List.of(company)).get(0);
+    }
+    
+    // Convert a batch of companies, reading all their user ids in one join-table query
+    // instead of initializing each company's lazy users collection
+    private List<CompanyDTO> convertToDTOs(List<Company> companies) {
+        if (companies.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> companyIds = companies.stream()
+            .map(Company::getId)
+            .collect(Collectors.toList());
+        
+        Map<Long, Set<Long>> userIdsByCompany = new HashMap<>();
+        for (MembershipView membership : companyRepository.findMembershipsByCompanyIds(companyIds)) {
+            userIdsByCompany.computeIfAbsent(membership.getCompanyId(), id -> new HashSet<>())
+                .add(membership.getUserId());
+        }
+        
+        return companies.stream()
+            .map(company -> new CompanyDTO(
+                company.getId(),
+                company.getName(),
+                company.getAddress(),
+                company.getIndustry(),
+                company.getCompanySize(),
+                company.getCreatedAt(),
+                company.getUpdatedAt(),
+                userIdsByCompany.getOrDefault(company.getId(), new HashSet<>())
+            ))
+            .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,37 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.repository.IdVersion;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+// Strong ETags built from entity @Version values
+final class Etags {
+    
+    private Etags() {}
+    
+    // ETag of one entity
+    static String of(String type, Long id, Long version) {
+        return "\"" + type + "-" + id + "-" + version + "\"";
+    }
+    
+    // ETag of a list: a digest of its (id, version) pairs in order
+    static String ofList(String type, List<IdVersion> rows) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        for (IdVersion row : rows) {
+            buffer.clear();
+            buffer.putLong(row.getId()).putLong(row.getVersion());
+            digest.update(buffer.array());
+        }
+        return "\"" + type + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+}
@@ -0,0 +1,157 @@
+package com.server.ResourceServer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.UserDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+
+// Streams whole tables as newline-delimited JSON straight from a JDBC cursor.
+// Rows are written as they are read, so memory use does not depend on table size.
+@Service
+public class ExportService {
+    
+    private static final String USERS_SQL =
+        "SELECT u.id, u.username, u.email, u.first_name, u.last_name, u.created_at, u.updated_at, uc.company_id " +
+        "FROM users u LEFT JOIN user_company uc ON uc.user_id = u.id ORDER BY u.id";
+    
+    private static final String COMPANIES_SQL =
+        "SELECT c.id, c.name, c.address, c.industry, c.company_size, c.created_at, c.updated_at, uc.user_id " +
+        "FROM companies c LEFT JOIN user_company uc ON uc.company_id = c.id ORDER BY c.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    // Flushes are left to NdjsonWriter; the mapper's default would flush after every row
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+    
+    public ExportService(DataSource dataSource, ObjectMapper objectMapper,
+                         @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+    
+    // Write every user as one JSON line, with its company ids
+    public void exportUsers(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(out);
+        UserDTO[] current = new UserDTO[1];
+        
+        query(USERS_SQL, rs -> {
+            long id = rs.getLong("id");
+            if (current[0] == null || current[0].getId() != id) {
+                writer.write(current[0]);
+                current[0] = new UserDTO(
+                    id,
+                    rs.getString("username"),
+                    rs.getString("email"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getObject("updated_at", LocalDateTime.class),
+                    new HashSet<>()
+                );
+            }
+            Long companyId = rs.getObject("company_id", Long.class);
+            if (companyId != null) {
+                current[0].getCompanyIds().add(companyId);
+            }
+        });
+        
+        writer.write(current[0]);
+        writer.finish();
+    }
+    
+    // Write every company as one JSON line, with its user ids
+    public void exportCompanies(OutputStream out) throws IOException {
+        NdjsonWriter writer = new NdjsonWriter(out);
+        CompanyDTO[] current = new CompanyDTO[1];
+        
+        query(COMPANIES_SQL, rs -> {
+            long id = rs.getLong("id");
+            if (current[0] == null || current[0].getId() != id) {
+                writer.write(current[0]);
+                current[0] = new CompanyDTO(
+                    id,
+                    rs.getString("name"),
+                    rs.getString("address"),
+                    rs.getString("industry"),
+                    rs.getString("company_size"),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getObject("updated_at", LocalDateTime.class),
+                    new HashSet<>()
+                );
+            }
+            Long userId = rs.getObject("user_id", Long.class);
+            if (userId != null) {
+                current[0].getUserIds().add(userId);
+            }
+        });
+        
+        writer.write(current[0]);
+        writer.finish();
+    }
+    
+    private void query(String sql, RowHandler handler) throws IOException {
+        try {
+            jdbcTemplate.query(sql, rs -> {
+                try {
+                    handler.handle(rs);
+                } catch (IOException e) {
+                    // Client went away: abort the query instead of reading the rest of the table
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(ResultSet rs) throws SQLException, IOException;
+    }
+    
+    // Writes one JSON document per line and flushes the first line right away,
+    // then once per fetch batch
+    private class NdjsonWriter {
+        private final JsonGenerator generator;
+        private long written;
+        
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.generator = rowWriter.createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Lines are separated by '\n' below, not by Jackson's default space
+            this.generator.setRootValueSeparator(null);
+        }
+        
+        void write(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            rowWriter.writeValue(generator, value);
+            generator.writeRaw('\n');
+            written++;
+            if (written == 1 || written % fetchSize == 0) {
+                generator.flush();
+            }
+        }
+        
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
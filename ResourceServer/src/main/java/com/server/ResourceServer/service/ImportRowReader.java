@@ -0,0 +1,140 @@
+package com.server.ResourceServer.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads import rows one at a time from a JSON array, newline-delimited JSON or CSV stream,
+// so an upload is never held in memory as a whole
+abstract class ImportRowReader<T> implements Closeable {
+    
+    static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    
+    static <T> ImportRowReader<T> open(InputStream in, MediaType contentType, Class<T> type,
+                                       ObjectMapper objectMapper) throws IOException {
+        if (TEXT_CSV.includes(contentType)) {
+            return new Csv<>(in, type, objectMapper);
+        }
+        return new Json<>(in, type, objectMapper);
+    }
+    
+    // Next row, or null at the end of the input.
+    // Throws IllegalArgumentException for a row that cannot be mapped; reading can continue after it.
+    abstract T next() throws IOException;
+    
+    private static class Json<T> extends ImportRowReader<T> {
+        private final MappingIterator<T> rows;
+        
+        Json(InputStream in, Class<T> type, ObjectMapper objectMapper) throws IOException {
+            // Iterates the elements of a top-level array, or a sequence of root-level objects
+            this.rows = objectMapper.readerFor(type).readValues(in);
+        }
+        
+        @Override
+        T next() throws IOException {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            try {
+                return rows.nextValue();
+            } catch (JsonMappingException e) {
+                throw new IllegalArgumentException(e.getOriginalMessage());
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+    
+    // Minimal RFC 4180 reader: header row with property names, quoted fields with "" escapes,
+    // no line breaks inside fields
+    private static class Csv<T> extends ImportRowReader<T> {
+        private final BufferedReader reader;
+        private final Class<T> type;
+        private final ObjectMapper objectMapper;
+        private final List<String> header;
+        
+        Csv(InputStream in, Class<T> type, ObjectMapper objectMapper) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.type = type;
+            this.objectMapper = objectMapper;
+            String headerLine = reader.readLine();
+            this.header = headerLine == null ? List.of() : split(headerLine.replace("\uFEFF", ""));
+        }
+        
+        @Override
+        T next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            
+            List<String> fields = split(line);
+            if (fields.size() != header.size()) {
+                throw new IllegalArgumentException(
+                    "Expected " + header.size() + " columns but found " + fields.size());
+            }
+            
+            Map<String, String> values = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = fields.get(i);
+                values.put(header.get(i).trim(), value.isEmpty() ? null : value);
+            }
+            return objectMapper.convertValue(values, type);
+        }
+        
+        private static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.server.ResourceServer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.ResourceServer.dto.CreateCompanyRequest;
+import com.server.ResourceServer.dto.CreateMembershipRequest;
+import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.dto.ImportReport;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.CompanySnapshot;
+import com.server.ResourceServer.event.MembershipChangedEvent;
+import com.server.ResourceServer.event.UserChangedEvent;
+import com.server.ResourceServer.event.UserSnapshot;
+import com.server.ResourceServer.model.Company;
+import com.server.ResourceServer.model.User;
+import com.server.ResourceServer.repository.CompanyRepository;
+import com.server.ResourceServer.repository.IdMapping;
+import com.server.ResourceServer.repository.Membership;
+import com.server.ResourceServer.repository.MembershipRepository;
+import com.server.ResourceServer.repository.MembershipView;
+import com.server.ResourceServer.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Bulk import of users, companies and memberships.
+// Rows are streamed from the upload and written in chunks of import.batch-size rows,
+// each chunk in its own transaction: uniqueness is checked with one IN query per chunk
+// and inserts go out as JDBC batches.
+@Service
+public class ImportService {
+    
+    @Value("${import.batch-size:1000}")
+    private int batchSize;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CompanyRepository companyRepository;
+    
+    @Autowired
+    private MembershipRepository membershipRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Import users; usernames and emails must be unique across the upload and the database
+    public ImportReport importUsers(InputStream in, MediaType contentType) throws IOException {
+        SeenKeys<String> seenUsernames = new SeenKeys<>();
+        SeenKeys<String> seenEmails = new SeenKeys<>();
+        return importRows(in, contentType, CreateUserRequest.class, List.of(seenUsernames, seenEmails),
+            (rows, report) -> importUserChunk(rows, report, seenUsernames, seenEmails));
+    }
+    
+    // Import companies; names must be unique across the upload and the database
+    public ImportReport importCompanies(InputStream in, MediaType contentType) throws IOException {
+        SeenKeys<String> seenNames = new SeenKeys<>();
+        return importRows(in, contentType, CreateCompanyRequest.class, List.of(seenNames),
+            (rows, report) -> importCompanyChunk(rows, report, seenNames));
+    }
+    
+    // Import memberships given as (username, companyName) pairs
+    public ImportReport importMemberships(InputStream in, MediaType contentType) throws IOException {
+        SeenKeys<List<Long>> seenPairs = new SeenKeys<>();
+        return importRows(in, contentType, CreateMembershipRequest.class, List.of(seenPairs),
+            (rows, report) -> importMembershipChunk(rows, report, seenPairs));
+    }
+    
+    private <T> ImportReport importRows(InputStream in, MediaType contentType, Class<T> type,
+                                        List<SeenKeys<?>> seen, ChunkImporter<T> importer) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        List<Row<T>> chunk = new ArrayList<>(batchSize);
+        
+        try (ImportRowReader<T> reader = ImportRowReader.open(in, contentType, type, objectMapper)) {
+            while (true) {
+                long rowNumber = report.getReceived() + 1;
+                T value;
+                try {
+                    value = reader.next();
+                } catch (IllegalArgumentException e) {
+                    report.setReceived(rowNumber);
+                    report.addError(rowNumber, e.getMessage());
+                    continue;
+                } catch (IOException e) {
+                    // Malformed document: keep what was read so far, skip the rest
+                    report.addError(rowNumber, "Unreadable input, import stopped: " + e.getMessage());
+                    break;
+                }
+                if (value == null) {
+                    break;
+                }
+                
+                report.setReceived(rowNumber);
+                chunk.add(new Row<>(rowNumber, value));
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, importer, seen, report);
+                    chunk.clear();
+                }
+            }
+        }
+        
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, importer, seen, report);
+        }
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+    
+    // The chunk's row errors and the keys it claimed only stand once it commits. A rolled-back
+    // chunk reports each of its rows once, as failed, and leaves its keys free for later rows.
+    private <T> void importChunk(List<Row<T>> chunk, ChunkImporter<T> importer, List<SeenKeys<?>> seen,
+                                 ImportReport report) {
+        ImportReport chunkReport = new ImportReport();
+        try {
+            Integer imported = transactionTemplate.execute(status -> importer.importChunk(chunk, chunkReport));
+            seen.forEach(SeenKeys::commit);
+            report.getErrors().addAll(chunkReport.getErrors());
+            report.setImported(report.getImported() + imported);
+        } catch (RuntimeException e) {
+            seen.forEach(SeenKeys::rollback);
+            for (Row<T> row : chunk) {
+                report.addError(row.number(), "Batch failed: " + e.getMessage());
+            }
+        }
+    }
+    
+    private int importUserChunk(List<Row<CreateUserRequest>> rows, ImportReport report,
+                                SeenKeys<String> seenUsernames, SeenKeys<String> seenEmails) {
+        List<Row<CreateUserRequest>> candidates = new ArrayList<>();
+        for (Row<CreateUserRequest> row : rows) {
+            CreateUserRequest request = row.value();
+            if (isBlank(request.getUsername()) || isBlank(request.getEmail())) {
+                report.addError(row.number(), "username and email are required");
+            } else if (!seenUsernames.add(request.getUsername())) {
+                report.addError(row.number(), "Duplicate username in import: " + request.getUsername());
+            } else if (!seenEmails.add(request.getEmail())) {
+                report.addError(row.number(), "Duplicate email in import: " + request.getEmail());
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        
+        Set<String> takenUsernames = userRepository.findExistingUsernames(
+            candidates.stream().map(row -> row.value().getUsername()).collect(Collectors.toList()));
+        Set<String> takenEmails = userRepository.findExistingEmails(
+            candidates.stream().map(row -> row.value().getEmail()).collect(Collectors.toList()));
+        
+        useImportBatchSize();
+        List<User> created = new ArrayList<>();
+        for (Row<CreateUserRequest> row : candidates) {
+            CreateUserRequest request = row.value();
+            if (takenUsernames.contains(request.getUsername())) {
+                report.addError(row.number(), "Username already exists: " + request.getUsername());
+            } else if (takenEmails.contains(request.getEmail())) {
+                report.addError(row.number(), "Email already exists: " + request.getEmail());
+            } else {
+                User user = new User(
+                    request.getUsername(),
+                    request.getEmail(),
+                    request.getFirstName(),
+                    request.getLastName()
+                );
+                entityManager.persist(user);
+                created.add(user);
+            }
+        }
+        entityManager.flush();
+        created.forEach(user -> eventPublisher.publishEvent(UserChangedEvent.created(UserSnapshot.of(user))));
+        entityManager.clear();
+        return created.size();
+    }
+    
+    private int importCompanyChunk(List<Row<CreateCompanyRequest>> rows, ImportReport report,
+                                   SeenKeys<String> seenNames) {
+        List<Row<CreateCompanyRequest>> candidates = new ArrayList<>();
+        for (Row<CreateCompanyRequest> row : rows) {
+            CreateCompanyRequest request = row.value();
+            if (isBlank(request.getName())) {
+                report.addError(row.number(), "name is required");
+            } else if (!seenNames.add(request.getName())) {
+                report.addError(row.number(), "Duplicate company name in import: " + request.getName());
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        
+        Set<String> takenNames = companyRepository.findExistingNames(
+            candidates.stream().map(row -> row.value().getName()).collect(Collectors.toList()));
+        
+        useImportBatchSize();
+        List<Company> created = new ArrayList<>();
+        for (Row<CreateCompanyRequest> row : candidates) {
+            CreateCompanyRequest request = row.value();
+            if (takenNames.contains(request.getName())) {
+                report.addError(row.number(), "Company already exists with name: " + request.getName());
+            } else {
+                Company company = new Company(
+                    request.getName(),
+                    request.getAddress(),
+                    request.getIndustry(),
+                    request.getCompanySize()
+                );
+                entityManager.persist(company);
+                created.add(company);
+            }
+        }
+        entityManager.flush();
+        created.forEach(company -> eventPublisher.publishEvent(CompanyChangedEvent.created(CompanySnapshot.of(company))));
+        entityManager.clear();
+        return created.size();
+    }
+    
+    private int importMembershipChunk(List<Row<CreateMembershipRequest>> rows, ImportReport report,
+                                      SeenKeys<List<Long>> seenPairs) {
+        Set<String> usernames = new HashSet<>();
+        Set<String> companyNames = new HashSet<>();
+        for (Row<CreateMembershipRequest> row : rows) {
+            usernames.add(row.value().getUsername());
+            companyNames.add(row.value().getCompanyName());
+        }
+        
+        Map<String, Long> userIds = new HashMap<>();
+        for (IdMapping user : userRepository.findIdsByUsernames(usernames)) {
+            userIds.put(user.getKey(), user.getId());
+        }
+        Map<String, Long> companyIds = new HashMap<>();
+        for (IdMapping company : companyRepository.findIdsByNames(companyNames)) {
+            companyIds.put(company.getKey(), company.getId());
+        }
+        
+        Set<List<Long>> existingPairs = new HashSet<>();
+        if (!userIds.isEmpty()) {
+            for (MembershipView membership : userRepository.findMembershipsByUserIds(userIds.values())) {
+                existingPairs.add(List.of(membership.getUserId(), membership.getCompanyId()));
+            }
+        }
+        
+        List<Membership> memberships = new ArrayList<>();
+        for (Row<CreateMembershipRequest> row : rows) {
+            CreateMembershipRequest request = row.value();
+            Long userId = userIds.get(request.getUsername());
+            Long companyId = companyIds.get(request.getCompanyName());
+            
+            if (isBlank(request.getUsername()) || isBlank(request.getCompanyName())) {
+                report.addError(row.number(), "username and companyName are required");
+            } else if (userId == null) {
+                report.addError(row.number(), "User not found with username: " + request.getUsername());
+            } else if (companyId == null) {
+                report.addError(row.number(), "Company not found with name: " + request.getCompanyName());
+            } else if (existingPairs.contains(List.of(userId, companyId))) {
+                report.addError(row.number(), "User is already a member of: " + request.getCompanyName());
+            } else if (!seenPairs.add(List.of(userId, companyId))) {
+                report.addError(row.number(), "Duplicate membership in import");
+            } else {
+                memberships.add(new Membership(userId, companyId));
+            }
+        }
+        
+        membershipRepository.insertAll(memberships, batchSize);
+        if (!memberships.isEmpty()) {
+            eventPublisher.publishEvent(new MembershipChangedEvent(
+                memberships.stream().map(Membership::getUserId).distinct().toList(),
+                memberships.stream().map(Membership::getCompanyId).distinct().toList()));
+        }
+        return memberships.size();
+    }
+    
+    // Let one flush go out as a single JDBC batch per chunk
+    private void useImportBatchSize() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    private record Row<T>(long number, T value) {}
+    
+    // Keys taken by earlier rows of the upload: those of committed chunks, plus those the current
+    // chunk has claimed so far, which are dropped again if it rolls back
+    private static final class SeenKeys<K> {
+        private final Set<K> committed = new HashSet<>();
+        private final Set<K> pending = new HashSet<>();
+        
+        // False if an earlier row already took the key
+        boolean add(K key) {
+            return !committed.contains(key) && pending.add(key);
+        }
+        
+        void commit() {
+            committed.addAll(pending);
+            pending.clear();
+        }
+        
+        void rollback() {
+            pending.clear();
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ChunkImporter<T> {
+        int importChunk(List<Row<T>> rows, ImportReport report);
+    }
+}
@@ -0,0 +1,290 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.dto.MembershipQueryResponse;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.MembershipChangedEvent;
+import com.server.ResourceServer.event.UserChangedEvent;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// The user_company join table held in memory as compressed bitmaps: the members of each company
+// and the companies of each user. Intersections, unions and counts are answered from these
+// bitmaps instead of join-table scans. Ids are stored as unsigned 32-bit values.
+//
+// The bitmaps are loaded once the application is ready and kept current from the change events,
+// after commit. Membership events do not say what changed, so the affected pairs are read back
+// from the database, one event at a time: whichever listener runs last sees the latest commit,
+// even when two transactions' listeners run out of commit order.
+@Service
+public class MembershipIndex {
+    
+    private static final int MAX_IDS = 100;
+    private static final int MAX_LIMIT = 1000;
+    
+    private final Map<Long, RoaringBitmap> usersByCompany = new HashMap<>();
+    private final Map<Long, RoaringBitmap> companiesByUser = new HashMap<>();
+    // Queries share the read lock; applying a change takes the write lock only for the bitmap updates
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes loading and change events, including their database reads. A lock rather than a
+    // monitor, so a virtual thread blocked in JDBC while holding it does not pin its carrier.
+    private final ReentrantLock updates = new ReentrantLock();
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    
+    public MembershipIndex(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+    
+    // Stream the join table into fresh bitmaps, then swap them in
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        updates.lock();
+        try {
+            Map<Long, RoaringBitmap> users = new HashMap<>();
+            Map<Long, RoaringBitmap> companies = new HashMap<>();
+            jdbcTemplate.query("SELECT user_id, company_id FROM user_company", rs -> {
+                long userId = rs.getLong("user_id");
+                long companyId = rs.getLong("company_id");
+                users.computeIfAbsent(companyId, id -> new RoaringBitmap()).add(key(userId));
+                companies.computeIfAbsent(userId, id -> new RoaringBitmap()).add(key(companyId));
+            });
+            users.values().forEach(RoaringBitmap::runOptimize);
+            companies.values().forEach(RoaringBitmap::runOptimize);
+            
+            lock.writeLock().lock();
+            try {
+                usersByCompany.clear();
+                usersByCompany.putAll(users);
+                companiesByUser.clear();
+                companiesByUser.putAll(companies);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updates.unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        if (event.userIds().isEmpty() || event.companyIds().isEmpty()) {
+            return;
+        }
+        updates.lock();
+        try {
+            // Committed state of every affected pair: the rows present now
+            Map<Long, RoaringBitmap> presentUsers = new HashMap<>();
+            Map<Long, RoaringBitmap> presentCompanies = new HashMap<>();
+            namedJdbcTemplate.query(
+                "SELECT user_id, company_id FROM user_company " +
+                "WHERE company_id IN (:companyIds) AND user_id IN (:userIds)",
+                Map.of("companyIds", event.companyIds(), "userIds", event.userIds()), rs -> {
+                    long userId = rs.getLong("user_id");
+                    long companyId = rs.getLong("company_id");
+                    presentUsers.computeIfAbsent(companyId, id -> new RoaringBitmap()).add(key(userId));
+                    presentCompanies.computeIfAbsent(userId, id -> new RoaringBitmap()).add(key(companyId));
+                });
+            RoaringBitmap affectedUsers = bitmapOf(event.userIds());
+            RoaringBitmap affectedCompanies = bitmapOf(event.companyIds());
+            
+            lock.writeLock().lock();
+            try {
+                for (Long companyId : event.companyIds()) {
+                    replace(usersByCompany, companyId, affectedUsers, presentUsers.get(companyId));
+                }
+                for (Long userId : event.userIds()) {
+                    replace(companiesByUser, userId, affectedCompanies, presentCompanies.get(userId));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updates.unlock();
+        }
+    }
+    
+    // Deleting a user or company deletes its memberships with it
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.current() == null) {
+            remove(event.previous().id(), companiesByUser, usersByCompany);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        if (event.current() == null) {
+            remove(event.previous().id(), usersByCompany, companiesByUser);
+        }
+    }
+    
+    // Get users that are members of all (or any) of the given companies, by id after the cursor
+    public MembershipQueryResponse findUsers(List<Long> companyIds, boolean all, Long after, int limit) {
+        return query(usersByCompany, companyIds, all, after, limit);
+    }
+    
+    // Get companies that all (or any) of the given users belong to, by id after the cursor
+    public MembershipQueryResponse findCompanies(List<Long> userIds, boolean all, Long after, int limit) {
+        return query(companiesByUser, userIds, all, after, limit);
+    }
+    
+    // Get the member count of each given company, in the given order
+    public Map<Long, Integer> countMembers(List<Long> companyIds) {
+        requireIds(companyIds);
+        Map<Long, Integer> counts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long companyId : companyIds) {
+                RoaringBitmap users = usersByCompany.get(companyId);
+                counts.put(companyId, users == null ? 0 : users.getCardinality());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return counts;
+    }
+    
+    private MembershipQueryResponse query(Map<Long, RoaringBitmap> index, List<Long> ids, boolean all,
+                                          Long after, int limit) {
+        requireIds(ids);
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long start = System.nanoTime();
+        
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = combine(index, ids, all);
+            long total = result.getLongCardinality();
+            
+            List<Long> items = new ArrayList<>();
+            PeekableIntIterator it = result.getIntIterator();
+            if (after != null && after >= 0) {
+                if (after >= 0xFFFF_FFFFL) {
+                    return new MembershipQueryResponse(total, List.of(), null, micros(start));
+                }
+                it.advanceIfNeeded((int) (after + 1));
+            }
+            while (it.hasNext() && items.size() < pageSize) {
+                items.add(Integer.toUnsignedLong(it.next()));
+            }
+            Long nextCursor = it.hasNext() ? items.get(items.size() - 1) : null;
+            return new MembershipQueryResponse(total, items, nextCursor, micros(start));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Intersection or union of the bitmaps of the given ids; unknown ids have no members
+    private static RoaringBitmap combine(Map<Long, RoaringBitmap> index, List<Long> ids, boolean all) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            RoaringBitmap bitmap = index.get(id);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            } else if (all) {
+                return new RoaringBitmap();
+            }
+        }
+        if (bitmaps.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        return all ? FastAggregation.and(bitmaps.iterator()) : FastAggregation.or(bitmaps.iterator());
+    }
+    
+    // Swap the affected part of an entry's bitmap for what the database holds now
+    private static void replace(Map<Long, RoaringBitmap> index, Long id, RoaringBitmap affected,
+                                RoaringBitmap present) {
+        RoaringBitmap bitmap = index.get(id);
+        if (bitmap == null) {
+            if (present != null) {
+                index.put(id, present);
+            }
+            return;
+        }
+        bitmap.andNot(affected);
+        if (present != null) {
+            bitmap.or(present);
+        }
+        if (bitmap.isEmpty()) {
+            index.remove(id);
+        }
+    }
+    
+    private void remove(Long id, Map<Long, RoaringBitmap> own, Map<Long, RoaringBitmap> other) {
+        updates.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                RoaringBitmap related = own.remove(id);
+                if (related == null) {
+                    return;
+                }
+                int key = key(id);
+                related.forEach((int relatedKey) -> {
+                    Long relatedId = Integer.toUnsignedLong(relatedKey);
+                    RoaringBitmap bitmap = other.get(relatedId);
+                    if (bitmap != null) {
+                        bitmap.remove(key);
+                        if (bitmap.isEmpty()) {
+                            other.remove(relatedId);
+                        }
+                    }
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            updates.unlock();
+        }
+    }
+    
+    private static RoaringBitmap bitmapOf(Iterable<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (Long id : ids) {
+            bitmap.add(key(id));
+        }
+        return bitmap;
+    }
+    
+    private static void requireIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new RuntimeException("At least one id is required");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new RuntimeException("Too many ids, maximum is " + MAX_IDS);
+        }
+    }
+    
+    private static int key(long id) {
+        if (id < 0 || id > 0xFFFF_FFFFL) {
+            throw new IllegalStateException("Id out of the membership index's range: " + id);
+        }
+        return (int) id;
+    }
+    
+    private static long micros(long start) {
+        return (System.nanoTime() - start) / 1000;
+    }
+}
@@ -0,0 +1,129 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.config.ReadWriteRoutingDataSource;
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.UserDTO;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.MembershipChangedEvent;
+import com.server.ResourceServer.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+// Single-flight front for the hot single-entity reads: concurrent identical lookups share one
+// query and one DTO conversion. It sits outside the services' transactions, so callers waiting
+// on a shared load hold no database connection. Results do not depend on the caller, and each
+// request has passed the security filter chain before it gets here. The one exception is a
+// replica: a shared load may read the lagging replica, so callers in their read-your-writes
+// window load on their own from the primary.
+// Shared DTOs are handed to several requests at once and must not be modified.
+@Service
+public class ReadCoalescer {
+    
+    private final SingleFlight flights = new SingleFlight();
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private CompanyService companyService;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    // Present when reads are split across a replica (see DataSourceConfig)
+    private ReadWriteRoutingDataSource routing;
+    
+    @PostConstruct
+    void findRouting() throws SQLException {
+        if (dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+            routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        }
+    }
+    
+    // Get company by ID
+    public CompanyDTO getCompanyById(Long id) {
+        return load("company:" + id, () -> companyService.getCompanyById(id));
+    }
+    
+    // Get company by name
+    public CompanyDTO getCompanyByName(String name) {
+        return load("company-name:" + name, () -> companyService.getCompanyByName(name));
+    }
+    
+    // Get user by ID
+    public UserDTO getUserById(Long id) {
+        return load("user:" + id, () -> userService.getUserById(id));
+    }
+    
+    // Get user by username
+    public UserDTO getUserByUsername(String username) {
+        return load("username:" + username, () -> userService.getUserByUsername(username));
+    }
+    
+    private <V> V load(String key, Supplier<V> loader) {
+        if (routing != null && routing.readsFromPrimary()) {
+            return loader.get();
+        }
+        return flights.load(key, loader);
+    }
+    
+    // Any write can change what a load returns (memberships show on both sides, deletes cascade),
+    // and loads only live for one query, so every write guards all keys rather than a few
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        guardUntilCompletion();
+    }
+    
+    @EventListener
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        guardUntilCompletion();
+    }
+    
+    @EventListener
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        guardUntilCompletion();
+    }
+    
+    // Published inside the writing transaction: stop coalescing from just before its commit
+    // until it completes. Without a transaction the write is already visible.
+    private void guardUntilCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            flights.beginWrite();
+            flights.endWrite();
+            return;
+        }
+        // One guard per transaction, however many events it publishes
+        if (TransactionSynchronizationManager.hasResource(flights)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(flights, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new WriteGuard());
+    }
+    
+    private class WriteGuard implements TransactionSynchronization {
+        
+        private boolean begun;
+        
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flights.beginWrite();
+            begun = true;
+        }
+        
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(flights);
+            if (begun) {
+                flights.endWrite();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.SearchHit;
+import com.server.ResourceServer.dto.SearchResponse;
+import com.server.ResourceServer.dto.UserDTO;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.CompanySnapshot;
+import com.server.ResourceServer.event.UserChangedEvent;
+import com.server.ResourceServer.event.UserSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ranked prefix search over users and companies, answered from in-memory token indexes.
+// The indexes are loaded from the database once the application is ready and kept current
+// from the change events UserService, CompanyService and ImportService publish after commit.
+@Service
+public class SearchService {
+    
+    public static final String TYPE_ALL = "all";
+    public static final String TYPE_USERS = "users";
+    public static final String TYPE_COMPANIES = "companies";
+    
+    private static final int MAX_LIMIT = 100;
+    // Deepest result a client can page to; ranking past this is not useful
+    private static final int MAX_WINDOW = 1000;
+    private static final int MAX_TERMS = 8;
+    
+    // Weights per field, in the order fields(...) passes them
+    private final TokenIndex users = new TokenIndex(8, 4, 6, 6);
+    private final TokenIndex companies = new TokenIndex(8, 4, 2);
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private CompanyService companyService;
+    
+    public SearchService(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+    
+    // Load both tables with a streaming cursor. Events committed meanwhile are applied as they
+    // arrive; the version check in TokenIndex keeps whichever of the two is newer.
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndexes() {
+        jdbcTemplate.query("SELECT id, version, username, email, first_name, last_name FROM users", rs -> {
+            users.put(rs.getLong("id"), rs.getLong("version"), new String[] {
+                rs.getString("username"), rs.getString("email"),
+                rs.getString("first_name"), rs.getString("last_name")});
+        });
+        jdbcTemplate.query("SELECT id, version, name, industry, address FROM companies", rs -> {
+            companies.put(rs.getLong("id"), rs.getLong("version"), new String[] {
+                rs.getString("name"), rs.getString("industry"), rs.getString("address")});
+        });
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.current() == null) {
+            users.remove(event.previous().id());
+        } else {
+            users.put(event.current().id(), version(event.current().version()), fields(event.current()));
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyChanged(CompanyChangedEvent event) {
+        if (event.current() == null) {
+            companies.remove(event.previous().id());
+        } else {
+            companies.put(event.current().id(), version(event.current().version()), fields(event.current()));
+        }
+    }
+    
+    // Documents matching every term of the query, each term as a whole word or a word prefix
+    public SearchResponse search(String query, String type, int offset, int limit) {
+        if (!TYPE_ALL.equals(type) && !TYPE_USERS.equals(type) && !TYPE_COMPANIES.equals(type)) {
+            throw new RuntimeException("Unknown search type: " + type);
+        }
+        if (offset < 0 || limit < 1 || limit > MAX_LIMIT || offset + limit > MAX_WINDOW) {
+            throw new RuntimeException("offset + limit must be at most " + MAX_WINDOW +
+                " and limit between 1 and " + MAX_LIMIT);
+        }
+        List<String> terms = TokenIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            throw new RuntimeException("Query has no searchable terms");
+        }
+        if (terms.size() > MAX_TERMS) {
+            terms = terms.subList(0, MAX_TERMS);
+        }
+        
+        long start = System.nanoTime();
+        int top = offset + limit;
+        List<Ranked> ranked = new ArrayList<>();
+        int total = 0;
+        boolean truncated = false;
+        if (!TYPE_COMPANIES.equals(type)) {
+            TokenIndex.Result result = users.search(terms, top);
+            result.hits().forEach(hit -> ranked.add(new Ranked(TYPE_USERS, hit)));
+            total += result.total();
+            truncated |= result.truncated();
+        }
+        if (!TYPE_USERS.equals(type)) {
+            TokenIndex.Result result = companies.search(terms, top);
+            result.hits().forEach(hit -> ranked.add(new Ranked(TYPE_COMPANIES, hit)));
+            total += result.total();
+            truncated |= result.truncated();
+        }
+        ranked.sort(Ranked.BEST_FIRST);
+        List<Ranked> page = ranked.subList(Math.min(offset, ranked.size()), Math.min(top, ranked.size()));
+        long indexMicros = (System.nanoTime() - start) / 1000;
+        
+        return new SearchResponse(query, total, truncated, offset, load(page), indexMicros);
+    }
+    
+    // Fetch the page's users and companies in one query each, keeping the ranked order.
+    // A document deleted since it was ranked is left out.
+    private List<SearchHit> load(List<Ranked> page) {
+        List<Long> userIds = new ArrayList<>();
+        List<Long> companyIds = new ArrayList<>();
+        for (Ranked ranked : page) {
+            (TYPE_USERS.equals(ranked.type) ? userIds : companyIds).add(ranked.hit.doc());
+        }
+        Map<Long, UserDTO> usersById = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            userService.getUsersByIds(userIds).forEach(user -> usersById.put(user.getId(), user));
+        }
+        Map<Long, CompanyDTO> companiesById = new HashMap<>();
+        if (!companyIds.isEmpty()) {
+            companyService.getCompaniesByIds(companyIds).forEach(company -> companiesById.put(company.getId(), company));
+        }
+        
+        List<SearchHit> items = new ArrayList<>(page.size());
+        for (Ranked ranked : page) {
+            long id = ranked.hit.doc();
+            if (TYPE_USERS.equals(ranked.type) && usersById.containsKey(id)) {
+                items.add(new SearchHit(ranked.type, id, ranked.hit.score(), usersById.get(id), null));
+            } else if (TYPE_COMPANIES.equals(ranked.type) && companiesById.containsKey(id)) {
+                items.add(new SearchHit(ranked.type, id, ranked.hit.score(), null, companiesById.get(id)));
+            }
+        }
+        return items;
+    }
+    
+    private static String[] fields(UserSnapshot user) {
+        return new String[] {user.username(), user.email(), user.firstName(), user.lastName()};
+    }
+    
+    private static String[] fields(CompanySnapshot company) {
+        return new String[] {company.name(), company.industry(), company.address()};
+    }
+    
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+    
+    private record Ranked(String type, TokenIndex.Hit hit) {
+        // Higher score first; ties go to users, then lower ids, so pages are stable
+        static final Comparator<Ranked> BEST_FIRST = Comparator
+            .comparingInt((Ranked ranked) -> ranked.hit.score()).reversed()
+            .thenComparing(ranked -> !TYPE_USERS.equals(ranked.type))
+            .thenComparingLong(ranked -> ranked.hit.doc());
+    }
+}
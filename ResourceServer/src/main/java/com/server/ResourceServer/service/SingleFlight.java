@@ -0,0 +1,67 @@
+package com.server.ResourceServer.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs at most one load per key at a time: callers asking for a key that is already loading
+// wait for that load and get its result, or its exception. Nothing is kept once a load ends.
+//
+// Writes are bracketed by beginWrite() before they commit and endWrite() after they complete.
+// Both drop the running loads, and in between every caller loads on its own, so a caller that
+// arrives after a commit never joins a load that might have read the rows from before it.
+class SingleFlight {
+    
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    
+    @SuppressWarnings("unchecked")
+    <V> V load(String key, Supplier<V> loader) {
+        if (pendingWrites.get() > 0) {
+            return loader.get();
+        }
+        
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            return (V) join(running);
+        }
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+    
+    void beginWrite() {
+        pendingWrites.incrementAndGet();
+        flights.clear();
+    }
+    
+    void endWrite() {
+        // Loads that slipped in while the write was committing are dropped before coalescing resumes
+        flights.clear();
+        pendingWrites.decrementAndGet();
+    }
+    
+    private static Object join(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
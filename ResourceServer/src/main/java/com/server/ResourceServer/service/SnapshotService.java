@@ -0,0 +1,174 @@
+package com.server.ResourceServer.service;
+
+import com.server.snapshot.TableSnapshot;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+// Carries users, companies, memberships and the change feed's tombstones of the in-memory
+// database across restarts. They are written to snapshot.file every snapshot.interval and once
+// more when the application stops, after the web server has stopped taking requests. At
+// startup, before the web server starts, the file is reloaded into the still empty tables with
+// batched inserts straight from a memory-mapped read (TableSnapshot, in the table-snapshot
+// module), so a restart costs file I/O rather than ORM inserts. Off unless snapshot.file is set.
+@Service
+@ConditionalOnProperty(name = "snapshot.file")
+public class SnapshotService implements SmartInitializingSingleton, SmartLifecycle {
+    
+    // Parents before the join table
+    private static final List<String> TABLES = List.of("users", "companies", "user_company", "tombstones");
+    // allocationSize of the users_seq, companies_seq and tombstones_seq generators
+    private static final int SEQUENCE_ALLOCATION = 50;
+    
+    private final Logger logger = Logger.getLogger(SnapshotService.class.getName());
+    private final AtomicBoolean restored = new AtomicBoolean();
+    // One save at a time. A lock rather than a monitor, so a virtual thread blocked in JDBC while
+    // holding it does not pin its carrier.
+    private final ReentrantLock saving = new ReentrantLock();
+    
+    @Value("${snapshot.file}")
+    private String file;
+    
+    @Value("${snapshot.interval:PT10M}")
+    private Duration interval;
+    
+    @Value("${snapshot.batch-size:5000}")
+    private int batchSize;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private TaskScheduler taskScheduler;
+    
+    @Autowired
+    private CompanyFacets companyFacets;
+    
+    private volatile ScheduledFuture<?> timer;
+    private volatile boolean running;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        restore();
+    }
+    
+    // Load the snapshot into the empty tables; only the first call does anything.
+    // A snapshot that cannot be read stops the startup rather than be overwritten at shutdown.
+    public void restore() {
+        if (!restored.compareAndSet(false, true)) {
+            return;
+        }
+        Path path = Path.of(file);
+        if (!Files.exists(path)) {
+            logger.info("No snapshot at " + path.toAbsolutePath() + ", starting with the database as it is");
+            return;
+        }
+        for (String table : TABLES) {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+            if (rows != null && rows > 0) {
+                logger.info("Table " + table + " already has rows, not restoring " + path.toAbsolutePath());
+                return;
+            }
+        }
+        
+        long start = System.nanoTime();
+        Map<String, Long> rows;
+        try {
+            rows = TableSnapshot.load(jdbcTemplate, transactionTemplate, path, batchSize);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not restore snapshot " + path.toAbsolutePath(), e);
+        }
+        restartSequence("users_seq", "users");
+        restartSequence("companies_seq", "companies");
+        restartSequence("tombstones_seq", "tombstones");
+        companyFacets.reload();
+        logger.info(String.format("Restored %s from %s in %.1f s", rows, path.toAbsolutePath(),
+            (System.nanoTime() - start) / 1e9));
+    }
+    
+    // Write all tables from one serializable transaction, so memberships and the rows they point
+    // to come from the same moment. The previous file stays in place until the new one is complete.
+    public void save() {
+        saving.lock();
+        try {
+            Path path = Path.of(file);
+            long start = System.nanoTime();
+            TransactionTemplate snapshotTransaction = new TransactionTemplate(transactionManager);
+            snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+            Map<String, Long> rows = snapshotTransaction.execute(status -> {
+                try {
+                    return TableSnapshot.write(jdbcTemplate, TABLES, path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info(String.format("Saved %s to %s in %.1f s", rows, path.toAbsolutePath(),
+                (System.nanoTime() - start) / 1e9));
+        } finally {
+            saving.unlock();
+        }
+    }
+    
+    @Override
+    public void start() {
+        if (interval.isPositive()) {
+            timer = taskScheduler.scheduleWithFixedDelay(this::save, Instant.now().plus(interval), interval);
+        }
+        running = true;
+    }
+    
+    @Override
+    public void stop() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        save();
+        running = false;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Started before and stopped after the web server (DEFAULT_PHASE - 2048), so the final
+    // snapshot is taken once requests have drained
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    // The pooled optimizer hands out the block ending at the value it reads, so restarting at
+    // max(id) + allocation makes the next id Hibernate assigns max(id) + 1
+    private void restartSequence(String sequence, String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (max + SEQUENCE_ALLOCATION));
+    }
+}
@@ -0,0 +1,10 @@
+package com.server.ResourceServer.service;
+
+// The token predates the tombstone retention window, so deletes may have been
+// purged since; the client has to start over with a full sync
+public class StaleChangeTokenException extends RuntimeException {
+    
+    public StaleChangeTokenException(String message) {
+        super(message);
+    }
+}
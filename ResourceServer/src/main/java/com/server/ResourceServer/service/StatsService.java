@@ -0,0 +1,49 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.dto.StatsDTO;
+import com.server.ResourceServer.repository.CompanyRepository;
+import com.server.ResourceServer.repository.IndustryCountView;
+import com.server.ResourceServer.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Transactional(readOnly = true)
+public class StatsService {
+    
+    private static final int MAX_RECENT = 50;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CompanyRepository companyRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private CompanyService companyService;
+    
+    // Dashboard summary: counts, newest entries and companies per industry
+    public StatsDTO getStats(int recent) {
+        int recentCount = Math.max(1, Math.min(recent, MAX_RECENT));
+        
+        Map<String, Long> companiesByIndustry = new TreeMap<>();
+        for (IndustryCountView row : companyRepository.countByIndustry()) {
+            companiesByIndustry.put(row.getIndustry(), row.getCount());
+        }
+        
+        return new StatsDTO(
+            userRepository.count(),
+            companyRepository.count(),
+            userService.getRecentUsers(recentCount),
+            companyService.getRecentCompanies(recentCount),
+            companiesByIndustry
+        );
+    }
+}
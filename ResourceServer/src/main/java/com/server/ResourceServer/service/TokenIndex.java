@@ -0,0 +1,370 @@
+package com.server.ResourceServer.service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index from lowercase tokens to the ids of the documents containing them.
+// Each posting also keeps a bit mask of the fields the token came from, which drives ranking.
+// Tokens are kept sorted so a query term can match every token it is a prefix of.
+final class TokenIndex {
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Prefix terms shorter than this only match whole tokens; "a" would expand to half the index
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // Tokens a single prefix term may expand to; a broader prefix only matches the whole token
+    private static final int MAX_EXPANSIONS = 64;
+    // How long a removed document keeps blocking late puts; events of one commit arrive well within it
+    private static final Duration REMOVED_RETENTION = Duration.ofMinutes(1);
+    
+    private final int[] fieldWeights;
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    // Version and tokens currently indexed per document, so an update can remove exactly those
+    private final Map<Long, Indexed> documents = new HashMap<>();
+    // Removed documents in removal order, so their DELETED entries can be dropped once expired
+    private final Deque<Removed> removed = new ArrayDeque<>();
+    private final long removedRetentionNanos;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // One weight per field; a document's fields are always passed in this order
+    TokenIndex(int... fieldWeights) {
+        this(REMOVED_RETENTION, fieldWeights);
+    }
+    
+    TokenIndex(Duration removedRetention, int... fieldWeights) {
+        this.removedRetentionNanos = removedRetention.toNanos();
+        this.fieldWeights = fieldWeights;
+    }
+    
+    // Lowercase alphanumeric runs; "Jane.Doe@Example.com" gives jane, doe, example, com
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    // Index a document version, replacing whatever was indexed for it before.
+    // Versions older than the indexed one are ignored, so listeners may apply events in any order.
+    void put(long doc, long version, String[] fields) {
+        Map<String, Integer> added = fieldMasks(fields);
+        lock.writeLock().lock();
+        try {
+            expireRemoved();
+            Indexed indexed = documents.get(doc);
+            if (indexed != null && indexed.version >= version) {
+                return;
+            }
+            replace(doc, indexed, added);
+            documents.put(doc, new Indexed(version, added.keySet().toArray(new String[0])));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Drop a document for good. Ids are never reused, so the DELETED marker only has to outlast
+    // puts still in flight for it: it ignores them for REMOVED_RETENTION and is then dropped.
+    void remove(long doc) {
+        lock.writeLock().lock();
+        try {
+            expireRemoved();
+            Indexed indexed = documents.get(doc);
+            if (indexed == Indexed.DELETED) {
+                return;
+            }
+            replace(doc, indexed, Map.of());
+            documents.put(doc, Indexed.DELETED);
+            removed.add(new Removed(doc, System.nanoTime()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Called with the write lock held
+    private void expireRemoved() {
+        long now = System.nanoTime();
+        while (!removed.isEmpty() && now - removed.peek().at() >= removedRetentionNanos) {
+            documents.remove(removed.poll().doc());
+        }
+    }
+    
+    private void replace(long doc, Indexed indexed, Map<String, Integer> added) {
+        if (indexed != null && indexed.tokens != null) {
+            for (String token : indexed.tokens) {
+                if (!added.containsKey(token)) {
+                    Postings list = postings.get(token);
+                    if (list != null && list.remove(doc) && list.size == 0) {
+                        postings.remove(token);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : added.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), token -> new Postings())
+                .put(doc, entry.getValue().byteValue());
+        }
+    }
+    
+    // Documents indexed or still remembered as removed
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    int tokenCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Documents matching every term, best first. Returns at most `top` hits plus the total match count,
+    // and whether a term was too broad a prefix to expand (the total then counts whole-token matches only).
+    Result search(List<String> terms, int top) {
+        if (terms.isEmpty()) {
+            return Result.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<List<Match>> matches = new ArrayList<>(terms.size());
+            boolean truncated = false;
+            int driver = 0;
+            long driverSize = Long.MAX_VALUE;
+            for (String term : terms) {
+                List<Match> termMatches = new ArrayList<>();
+                truncated |= !expand(term, termMatches);
+                long size = 0;
+                for (Match match : termMatches) {
+                    size += match.postings.size;
+                }
+                if (size == 0) {
+                    return truncated ? new Result(List.of(), 0, true) : Result.EMPTY;
+                }
+                if (size < driverSize) {
+                    driver = matches.size();
+                    driverSize = size;
+                }
+                matches.add(termMatches);
+            }
+    
+            // Walk the rarest term's documents and probe the other terms for each one
+            PriorityQueue<Hit> best = new PriorityQueue<>(Hit.WORST_FIRST);
+            int[] total = {0};
+            int driverIndex = driver;
+            forEachDocument(matches.get(driverIndex), (doc, driverScore) -> {
+                int score = driverScore;
+                for (int i = 0; i < matches.size() && score > 0; i++) {
+                    if (i != driverIndex) {
+                        int termScore = score(matches.get(i), doc);
+                        score = termScore == 0 ? 0 : score + termScore;
+                    }
+                }
+                if (score > 0) {
+                    total[0]++;
+                    // Documents arrive in id order, so once the heap is full a tie never displaces anything
+                    if (best.size() < top) {
+                        best.add(new Hit(doc, score));
+                    } else if (score > best.peek().score()) {
+                        best.poll();
+                        best.add(new Hit(doc, score));
+                    }
+                }
+            });
+    
+            Hit[] hits = best.toArray(new Hit[0]);
+            Arrays.sort(hits, Hit.WORST_FIRST.reversed());
+            return new Result(List.of(hits), total[0], truncated);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Add the postings a term matches: the whole token (double weight) and tokens it is a prefix of.
+    // A prefix of more than MAX_EXPANSIONS tokens adds none of them rather than an arbitrary first
+    // few, and returns false so the caller can ask for a longer term.
+    private boolean expand(String term, List<Match> matches) {
+        Postings exact = postings.get(term);
+        if (exact != null) {
+            matches.add(new Match(exact, 2));
+        }
+        if (term.length() < MIN_PREFIX_LENGTH) {
+            return true;
+        }
+        List<Match> prefixed = new ArrayList<>();
+        for (Postings list : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            if (prefixed.size() == MAX_EXPANSIONS) {
+                return false;
+            }
+            prefixed.add(new Match(list, 1));
+        }
+        matches.addAll(prefixed);
+        return true;
+    }
+    
+    // Best score of one term for a document, 0 if the term does not match it
+    private int score(List<Match> matches, long doc) {
+        int best = 0;
+        for (Match match : matches) {
+            int mask = match.postings.mask(doc);
+            if (mask != 0) {
+                best = Math.max(best, weight(mask) * match.multiplier);
+            }
+        }
+        return best;
+    }
+    
+    // Visit each document of a term once, with its best score, merging the sorted postings
+    private void forEachDocument(List<Match> matches, DocumentVisitor visitor) {
+        if (matches.size() == 1) {
+            Match match = matches.get(0);
+            Postings list = match.postings;
+            for (int i = 0; i < list.size; i++) {
+                visitor.visit(list.docs[i], weight(list.masks[i]) * match.multiplier);
+            }
+            return;
+        }
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>((a, b) -> Long.compare(a.doc(), b.doc()));
+        for (Match match : matches) {
+            cursors.add(new Cursor(match));
+        }
+        while (!cursors.isEmpty()) {
+            long doc = cursors.peek().doc();
+            int best = 0;
+            while (!cursors.isEmpty() && cursors.peek().doc() == doc) {
+                Cursor cursor = cursors.poll();
+                best = Math.max(best, weight(cursor.mask()) * cursor.match.multiplier);
+                if (++cursor.position < cursor.match.postings.size) {
+                    cursors.add(cursor);
+                }
+            }
+            visitor.visit(doc, best);
+        }
+    }
+    
+    private int weight(int mask) {
+        int weight = 0;
+        for (int field = 0; field < fieldWeights.length; field++) {
+            if ((mask & (1 << field)) != 0) {
+                weight += fieldWeights[field];
+            }
+        }
+        return weight;
+    }
+    
+    // Token -> bit mask of the fields it appears in
+    private Map<String, Integer> fieldMasks(String[] fields) {
+        Map<String, Integer> masks = new HashMap<>();
+        for (int field = 0; field < fields.length; field++) {
+            int bit = 1 << field;
+            for (String token : tokenize(fields[field])) {
+                masks.merge(token, bit, (a, b) -> a | b);
+            }
+        }
+        return masks;
+    }
+    
+    record Hit(long doc, int score) {
+        // Lower score first, then higher id, so the heap evicts the weakest hit
+        static final Comparator<Hit> WORST_FIRST =
+            Comparator.comparingInt(Hit::score).thenComparing(Hit::doc, Comparator.reverseOrder());
+    }
+    
+    record Result(List<Hit> hits, int total, boolean truncated) {
+        static final Result EMPTY = new Result(List.of(), 0, false);
+    }
+    
+    private record Match(Postings postings, int multiplier) {}
+    
+    private record Removed(long doc, long at) {}
+    
+    private record Indexed(long version, String[] tokens) {
+        static final Indexed DELETED = new Indexed(Long.MAX_VALUE, null);
+    }
+    
+    @FunctionalInterface
+    private interface DocumentVisitor {
+        void visit(long doc, int score);
+    }
+    
+    private static final class Cursor {
+        private final Match match;
+        private int position;
+    
+        Cursor(Match match) {
+            this.match = match;
+        }
+    
+        long doc() {
+            return match.postings.docs[position];
+        }
+    
+        int mask() {
+            return match.postings.masks[position];
+        }
+    }
+    
+    // Sorted document ids with their field masks, in parallel primitive arrays
+    private static final class Postings {
+        private long[] docs = new long[2];
+        private byte[] masks = new byte[2];
+        private int size;
+    
+        void put(long doc, byte mask) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index >= 0) {
+                masks[index] = mask;
+                return;
+            }
+            index = -index - 1;
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                masks = Arrays.copyOf(masks, size * 2);
+            }
+            System.arraycopy(docs, index, docs, index + 1, size - index);
+            System.arraycopy(masks, index, masks, index + 1, size - index);
+            docs[index] = doc;
+            masks[index] = mask;
+            size++;
+        }
+    
+        boolean remove(long doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(masks, index + 1, masks, index, size - index - 1);
+            size--;
+            return true;
+        }
+    
+        int mask(long doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            return index >= 0 ? masks[index] : 0;
+        }
+    }
+}
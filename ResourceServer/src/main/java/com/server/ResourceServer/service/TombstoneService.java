@@ -0,0 +1,109 @@
+package com.server.ResourceServer.service;
+
+import com.server.ResourceServer.dto.ChangesResponse;
+import com.server.ResourceServer.model.Tombstone;
+import com.server.ResourceServer.repository.TombstoneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+// Tombstones for deleted users and companies, and the shared rules of the change feed
+@Service
+@Transactional
+public class TombstoneService {
+    
+    // Changes newer than this are held back: a transaction stamps updatedAt before it
+    // commits, so a row can become visible with a timestamp the feed has already passed
+    @Value("${changes.settle-millis:2000}")
+    private long settleMillis;
+    
+    @Value("${changes.tombstone-retention:P30D}")
+    private Duration retention;
+    
+    @Autowired
+    private TombstoneRepository tombstoneRepository;
+    
+    // Record deleted entities
+    public void record(String entityType, Collection<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        tombstoneRepository.saveAll(ids.stream()
+            .map(id -> new Tombstone(entityType, id, now))
+            .toList());
+    }
+    
+    // One page of the change feed for an entity type: rows `updated` returns after the token and the
+    // type's tombstones, each stream up to pageSize, with the token for the next page
+    @Transactional(readOnly = true)
+    public <E, D> ChangesResponse<D> changes(String entityType, String updatedSince, int pageSize,
+                                             ChangeQuery<E> updated, Function<E, LocalDateTime> updatedAt,
+                                             Function<E, Long> id, Function<List<E>, List<D>> toDTOs) {
+        ChangeToken since = parseToken(updatedSince);
+        LocalDateTime until = settledUntil();
+        
+        // One extra row on each stream to know whether more changes are waiting
+        List<E> entities = updated.findChanges(since.updatedAt(), since.updatedId(), until, Limit.of(pageSize + 1));
+        List<Tombstone> deleted = tombstoneRepository.findChanges(
+            entityType, since.deletedAt(), since.deletedId(), until, Limit.of(pageSize + 1));
+        boolean moreUpdated = entities.size() > pageSize;
+        boolean moreDeleted = deleted.size() > pageSize;
+        if (moreUpdated) {
+            entities = entities.subList(0, pageSize);
+        }
+        if (moreDeleted) {
+            deleted = deleted.subList(0, pageSize);
+        }
+        
+        // A drained stream jumps to `until`, so idle polls stay cheap and tokens stay fresh
+        E lastUpdated = entities.isEmpty() ? null : entities.get(entities.size() - 1);
+        Tombstone lastDeleted = deleted.isEmpty() ? null : deleted.get(deleted.size() - 1);
+        ChangeToken next = new ChangeToken(
+            moreUpdated ? updatedAt.apply(lastUpdated) : latest(since.updatedAt(), until),
+            moreUpdated ? id.apply(lastUpdated) : Long.MAX_VALUE,
+            moreDeleted ? lastDeleted.getDeletedAt() : latest(since.deletedAt(), until),
+            moreDeleted ? lastDeleted.getId() : Long.MAX_VALUE,
+            true);
+        
+        List<Long> deletedIds = deleted.stream().map(Tombstone::getEntityId).toList();
+        return new ChangesResponse<>(toDTOs.apply(entities), deletedIds, next.encode(), moreUpdated || moreDeleted);
+    }
+    
+    // Drop tombstones that no valid token can still ask for
+    @Scheduled(fixedDelayString = "${changes.purge-interval:PT1H}")
+    public void purge() {
+        tombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(retention));
+    }
+    
+    // Parse an updatedSince value, rejecting tokens older than the retention window
+    private ChangeToken parseToken(String value) {
+        ChangeToken token = ChangeToken.parse(value);
+        if (token.issued() && token.deletedAt().isBefore(LocalDateTime.now().minus(retention))) {
+            throw new StaleChangeTokenException("Token is older than " + retention + ", a full sync is required");
+        }
+        return token;
+    }
+    
+    // Latest timestamp the feed may return
+    private LocalDateTime settledUntil() {
+        return LocalDateTime.now().minusNanos(settleMillis * 1_000_000);
+    }
+    
+    private static LocalDateTime latest(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+    
+    // The entity stream of the feed, a repository's findChanges: rows updated after the
+    // (since, afterId) cursor and no later than `until`, oldest first
+    @FunctionalInterface
+    public interface ChangeQuery<E> {
+        List<E> findChanges(LocalDateTime since, Long afterId, LocalDateTime until, Limit limit);
+    }
+}
@@ -1,16 +1,34 @@
 package com.server.ResourceServer.service;
 
+import com.server.ResourceServer.dto.ChangesResponse;
 import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.dto.MembershipDTO;
+import com.server.ResourceServer.dto.PageResponse;
 import com.server.ResourceServer.dto.UserDTO;
-import com.server.ResourceServer.model.Company;
+import com.server.ResourceServer.event.MembershipChangedEvent;
+import com.server.ResourceServer.event.UserChangedEvent;
+import com.server.ResourceServer.event.UserSnapshot;
+import com.server.ResourceServer.model.Tombstone;
 import com.server.ResourceServer.model.User;
 import com.server.ResourceServer.repository.CompanyRepository;
+import com.server.ResourceServer.repository.MembershipRepository;
+import com.server.ResourceServer.repository.MembershipView;
 import com.server.ResourceServer.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -18,12 +36,34 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserService {
     
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_LINKED_USERS = 100_000;
+    
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
     private CompanyRepository companyRepository;
     
+    @Autowired
+    private MembershipRepository membershipRepository;
+    
+    @Autowired
+    private TombstoneService tombstoneService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // ResourceServer user id by the AuthorizationServer user id in access tokens,
+    // least recently used dropped first
+    private final Map<Long, Long> userIdsByAuthUserId = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > MAX_LINKED_USERS;
+            }
+        });
+    
     // Create a new user
     public UserDTO createUser(CreateUserRequest request) {
         if (userRepository.existsByUsername(request.getUsername())) {
@@ -42,17 +82,72 @@ public class UserService {
         );
         
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserChangedEvent.created(UserSnapshot.of(savedUser)));
         return convertToDTO(savedUser);
     }
     
-    // Get all users
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+    // Get a page of users ordered by id, starting after the given cursor
+    @Transactional(readOnly = true)
+    public PageResponse<UserDTO> getUsersPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+            after == null ? 0L : after, Limit.of(pageSize + 1));
+        
+        Long nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = users.get(pageSize - 1).getId();
+        }
+        
+        return new PageResponse<>(convertToDTOs(users), nextCursor);
+    }
+    
+    // ETag of a users page, from the (id, version) of its rows plus the look-ahead row
+    @Transactional(readOnly = true)
+    public String getUsersPageEtag(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return Etags.ofList("users", userRepository.findVersionsAfter(
+            after == null ? 0L : after, Limit.of(pageSize + 1)));
+    }
+    
+    // Change feed: users updated or deleted after the updatedSince token, oldest first
+    @Transactional(readOnly = true)
+    public ChangesResponse<UserDTO> getUserChanges(String updatedSince, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return tombstoneService.changes(Tombstone.USER, updatedSince, pageSize, userRepository::findChanges,
+            User::getUpdatedAt, User::getId, this::convertToDTOs);
+    }
+    
+    // Get the most recently created users
+    @Transactional(readOnly = true)
+    public List<UserDTO> getRecentUsers(int count) {
+        return convertToDTOs(userRepository.findAllByOrderByCreatedAtDesc(Limit.of(count)));
+    }
+    
+    // ETag of a user, read from the cached entity without building the DTO
+    @Transactional(readOnly = true)
+    public String getUserEtag(Long id) {
+        User user = userRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        return Etags.of("user", id, user.getVersion());
+    }
+    
+    // Get users by id, in the given order; ids that no longer exist are skipped
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsersByIds(List<Long> ids) {
+        Map<Long, User> byId = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            byId.put(user.getId(), user);
+        }
+        return convertToDTOs(ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList()));
     }
     
     // Get user by ID
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -60,12 +155,40 @@ public class UserService {
     }
     
     // Get user by username
+    @Transactional(readOnly = true)
     public UserDTO getUserByUsername(String username) {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
         return convertToDTO(user);
     }
     
+    // Get the user an access token belongs to. Tokens carrying the AuthorizationServer user id
+    // resolve through an in-memory link to the entity cache, so no query runs once the link exists.
+    // The username is still compared, since AuthorizationServer ids do not survive its restarts.
+    @Transactional(readOnly = true)
+    public UserDTO getCurrentUser(Long authUserId, String username) {
+        return convertToDTO(findCurrentUser(authUserId, username)
+            .orElseThrow(() -> new RuntimeException("User not found with username: " + username)));
+    }
+    
+    private Optional<User> findCurrentUser(Long authUserId, String username) {
+        if (authUserId == null) {
+            return userRepository.findByUsername(username);
+        }
+        Long linkedId = userIdsByAuthUserId.get(authUserId);
+        if (linkedId != null) {
+            Optional<User> linked = userRepository.findById(linkedId)
+                .filter(user -> user.getUsername().equals(username));
+            if (linked.isPresent()) {
+                return linked;
+            }
+            userIdsByAuthUserId.remove(authUserId);
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(found -> userIdsByAuthUserId.put(authUserId, found.getId()));
+        return user;
+    }
+    
     // Update user
     public UserDTO updateUser(Long id, CreateUserRequest request) {
         User user = userRepository.findById(id)
@@ -83,99 +206,149 @@ public class UserService {
             throw new RuntimeException("Email already exists: " + request.getEmail());
         }
         
+        UserSnapshot previous = UserSnapshot.of(user);
         user.setUsername(request.getUsername());
         user.setEmail(request.getEmail());
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         
-        User updatedUser = userRepository.save(user);
+        // Flush so the snapshot carries the incremented version
+        User updatedUser = userRepository.saveAndFlush(user);
+        eventPublisher.publishEvent(new UserChangedEvent(previous, UserSnapshot.of(updatedUser)));
         return convertToDTO(updatedUser);
     }
     
-    // Delete user
+    // Delete user: drop its memberships, then the row itself
     public void deleteUser(Long id) {
         User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        UserSnapshot previous = UserSnapshot.of(user);
         
-        // Remove user from all companies before deleting
-        for (Company company : user.getCompanies()) {
-            company.getUsers().remove(user);
+        membershipRepository.deleteByUserIds(List.of(id));
+        userRepository.deleteAllByIdIn(List.of(id));
+        tombstoneService.record(Tombstone.USER, List.of(id));
+        eventPublisher.publishEvent(UserChangedEvent.deleted(previous));
+    }
+    
+    // Delete many users at once; ids that do not exist are ignored
+    public int deleteUsers(Collection<Long> ids) {
+        List<UserSnapshot> existing = userRepository.findAllById(ids).stream()
+            .map(UserSnapshot::of)
+            .toList();
+        if (existing.isEmpty()) {
+            return 0;
         }
-        user.getCompanies().clear();
+        List<Long> existingIds = existing.stream().map(UserSnapshot::id).toList();
         
-        userRepository.delete(user);
+        membershipRepository.deleteByUserIds(existingIds);
+        int deleted = userRepository.deleteAllByIdIn(existingIds);
+        tombstoneService.record(Tombstone.USER, existingIds);
+        existing.forEach(previous -> eventPublisher.publishEvent(UserChangedEvent.deleted(previous)));
+        return deleted;
     }
     
     // Add user to company
-    public UserDTO addUserToCompany(Long userId, Long companyId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+    public MembershipDTO addUserToCompany(Long userId, Long companyId) {
+        requireMembershipEnds(userId, companyId);
         
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
-        
-        user.addCompany(company);
-        User savedUser = userRepository.save(user);
-        return convertToDTO(savedUser);
+        boolean added = membershipRepository.insert(userId, companyId);
+        if (added) {
+            eventPublisher.publishEvent(MembershipChangedEvent.of(userId, companyId));
+        }
+        return new MembershipDTO(userId, companyId, true, added);
     }
     
     // Remove user from company
-    public UserDTO removeUserFromCompany(Long userId, Long companyId) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
+    public MembershipDTO removeUserFromCompany(Long userId, Long companyId) {
+        requireMembershipEnds(userId, companyId);
         
-        user.removeCompany(company);
-        User savedUser = userRepository.save(user);
-        return convertToDTO(savedUser);
+        boolean removed = membershipRepository.delete(userId, companyId);
+        if (removed) {
+            eventPublisher.publishEvent(MembershipChangedEvent.of(userId, companyId));
+        }
+        return new MembershipDTO(userId, companyId, false, removed);
+    }
+    
+    // Check both sides exist without loading either association
+    private void requireMembershipEnds(Long userId, Long companyId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        if (!companyRepository.existsById(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+    }
+    
+    // ETag of a company's member list
+    @Transactional(readOnly = true)
+    public String getUsersByCompanyEtag(Long companyId) {
+        return Etags.ofList("company-users", userRepository.findVersionsByCompanyId(companyId));
     }
     
     // Get all users by company
+    @Transactional(readOnly = true)
     public Set<UserDTO> getUsersByCompany(Long companyId) {
-        return userRepository.findUsersByCompanyId(companyId).stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toSet());
+        return new HashSet<>(convertToDTOs(List.copyOf(userRepository.findUsersByCompanyId(companyId))));
     }
     
     // Sync user from Authorization Server
     public UserDTO syncUserFromAuthServer(String username, String email, String firstName, String lastName) {
         // Check if user already exists
-        if (userRepository.existsByUsername(username)) {
-            User existingUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Optional<User> existing = userRepository.findByUsername(username);
+        if (existing.isPresent()) {
+            User existingUser = existing.get();
             
             // Update existing user information
+            UserSnapshot previous = UserSnapshot.of(existingUser);
             existingUser.setEmail(email);
             existingUser.setFirstName(firstName);
             existingUser.setLastName(lastName);
             
-            User updatedUser = userRepository.save(existingUser);
+            User updatedUser = userRepository.saveAndFlush(existingUser);
+            eventPublisher.publishEvent(new UserChangedEvent(previous, UserSnapshot.of(updatedUser)));
             return convertToDTO(updatedUser);
         } else {
             // Create new user
             User newUser = new User(username, email, firstName, lastName);
             User savedUser = userRepository.save(newUser);
+            eventPublisher.publishEvent(UserChangedEvent.created(UserSnapshot.of(savedUser)));
             return convertToDTO(savedUser);
         }
     }
     
     // Convert User entity to UserDTO
     private UserDTO convertToDTO(User user) {
-        Set<Long> companyIds = user.getCompanies().stream()
-            .map(Company::getId)
-            .collect(Collectors.toSet());
-        
-        return new UserDTO(
-            user.getId(),
-            user.getUsername(),
-            user.getEmail(),
-            user.getFirstName(),
-            user.getLastName(),
-            user.getCreatedAt(),
-            user.getUpdatedAt(),
-            companyIds
-        );
+        return convertToDTOs(List.of(user)).get(0);
+    }
+    
+    // Convert a batch of users, reading all their company ids in one join-table query
+    // instead of initializing each user's lazy companies collection
+    private List<UserDTO> convertToDTOs(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        
+        List<Long> userIds = users.stream()
+            .map(User::getId)
+            .collect(Collectors.toList());
+        
+        Map<Long, Set<Long>> companyIdsByUser = new HashMap<>();
+        for (MembershipView membership : userRepository.findMembershipsByUserIds(userIds)) {
+            companyIdsByUser.computeIfAbsent(membership.getUserId(), id -> new HashSet<>())
+                .add(membership.getCompanyId());
+        }
+        
+        return users.stream()
+            .map(user -> new UserDTO(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getCreatedAt(),
+                user.getUpdatedAt(),
+                companyIdsByUser.getOrDefault(user.getId(), new HashSet<>())
+            ))
+            .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,295 @@
+package com.server.ResourceServer.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.server.ResourceServer.ResourceServerApplication;
+import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.service.UserService;
+import com.sun.net.httpserver.HttpServer;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Runs the same closed-loop load against the ResourceServer twice, once on Tomcat's platform
+ * thread pool and once on virtual threads, and prints throughput, latency percentiles and the
+ * JFR {@code jdk.VirtualThreadPinned} events seen while the virtual run was measured.
+ *
+ * <p>Each simulated connection sends authenticated {@code GET /api/users} requests back to back,
+ * so every request validates a JWT (keys served from a local JWKS endpoint) and runs JDBC queries.
+ * Not part of the regular build; run it explicitly:
+ *
+ * <pre>
+ * mvn test -Dtest=ThreadModelBenchmark -Dbench.connections=1000 -Dbench.seconds=20
+ * </pre>
+ */
+class ThreadModelBenchmark {
+
+    private static final int CONNECTIONS = Integer.getInteger("bench.connections", 1000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("bench.warmup", 10);
+    private static final int MEASURE_SECONDS = Integer.getInteger("bench.seconds", 20);
+    private static final int SEED_USERS = 500;
+    // Pinned sections shorter than this are not reported
+    private static final Duration PIN_THRESHOLD = Duration.ofMillis(Long.getLong("bench.pin-threshold-ms", 5));
+
+    @Test
+    void compareThreadModels() throws Exception {
+        RSAKey key = new RSAKeyGenerator(2048).keyID("bench").generate();
+        HttpServer jwks = startJwksServer(key);
+        String jwksUri = "http://localhost:" + jwks.getAddress().getPort() + "/oauth2/jwks";
+        String token = sign(key);
+        try {
+            Result platform = run("platform", false, jwksUri, token);
+            Result virtual = run("virtual", true, jwksUri, token);
+
+            System.out.printf("%n%d connections, %ds warm-up, %ds measured%n",
+                    CONNECTIONS, WARMUP_SECONDS, MEASURE_SECONDS);
+            System.out.printf("%-9s %10s %8s %8s %8s %8s %8s %8s%n",
+                    "threads", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "pinned");
+            platform.print();
+            virtual.print();
+            virtual.printPinning();
+
+            assertThat(platform.completed).isPositive();
+            assertThat(virtual.completed).isPositive();
+        } finally {
+            jwks.stop(0);
+        }
+    }
+
+    private Result run(String name, boolean virtualThreads, String jwksUri, String token) throws Exception {
+        // Command-line arguments, so they win over application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ResourceServerApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--keySetURI=" + jwksUri,
+                        "--spring.datasource.url=jdbc:h2:mem:bench-" + name,
+                        "--spring.jmx.enabled=false",
+                        // Let every simulated connection in; queueing happens on threads, not sockets
+                        "--server.tomcat.max-connections=" + (CONNECTIONS * 2),
+                        "--server.tomcat.accept-count=" + CONNECTIONS,
+                        // Same for the NORMAL lane and the adaptive limit, so requests are measured, not shed
+                        "--lanes.normal.permits=" + CONNECTIONS,
+                        "--lanes.normal.queue=" + CONNECTIONS,
+                        "--concurrency.initial-limit=" + (CONNECTIONS * 2),
+                        "--concurrency.min-limit=" + (CONNECTIONS * 2),
+                        "--concurrency.max-limit=" + (CONNECTIONS * 2));
+        try (RecordingStream pinning = new RecordingStream()) {
+            UserService userService = context.getBean(UserService.class);
+            for (int i = 0; i < SEED_USERS; i++) {
+                userService.createUser(new CreateUserRequest(
+                        "bench-" + i, "bench-" + i + "@example.com", "Bench", "User " + i));
+            }
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI uri = URI.create("http://localhost:" + port + "/api/users?limit=20");
+
+            Result result = new Result(name);
+            pinning.enable("jdk.VirtualThreadPinned").withThreshold(PIN_THRESHOLD).withStackTrace();
+            pinning.onEvent("jdk.VirtualThreadPinned", result::pinned);
+            pinning.startAsync();
+            load(uri, token, result);
+            return result;
+        } finally {
+            context.close();
+        }
+    }
+
+    // Closed loop: each connection waits for its response before sending the next request
+    private void load(URI uri, String token, Result result) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .build();
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+        long measureUntil = measureFrom + Duration.ofSeconds(MEASURE_SECONDS).toNanos();
+        result.measureFrom = Instant.now().plusSeconds(WARMUP_SECONDS);
+
+        try (HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.submit(() -> {
+                    Latencies latencies = new Latencies();
+                    long now = System.nanoTime();
+                    while (now < measureUntil) {
+                        long start = now;
+                        boolean ok;
+                        try {
+                            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (IOException e) {
+                            ok = false;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        now = System.nanoTime();
+                        if (start >= measureFrom && now <= measureUntil) {
+                            if (ok) {
+                                latencies.add(now - start);
+                            } else {
+                                result.errors.increment();
+                            }
+                        }
+                    }
+                    result.add(latencies);
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(WARMUP_SECONDS + MEASURE_SECONDS + 120L, TimeUnit.SECONDS);
+        }
+    }
+
+    private static HttpServer startJwksServer(RSAKey key) throws IOException {
+        byte[] body = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/oauth2/jwks", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static String sign(RSAKey key) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("bench")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))))
+                .claim("priority", "normal")
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    // Growable array of nanosecond latencies, owned by one client thread
+    private static final class Latencies {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+    }
+
+    private static final class Result {
+        private final String name;
+        private final List<Latencies> latencies = new ArrayList<>();
+        private final LongAdder errors = new LongAdder();
+        // Pinning during warm-up is not counted
+        private volatile Instant measureFrom = Instant.MAX;
+        private final LongAdder pinnedEvents = new LongAdder();
+        // Innermost non-JDK frame of each pinned stack, with its count
+        private final Map<String, LongAdder> pinnedAt = new ConcurrentHashMap<>();
+        private long completed;
+
+        Result(String name) {
+            this.name = name;
+        }
+
+        synchronized void add(Latencies connection) {
+            latencies.add(connection);
+            completed += connection.size;
+        }
+
+        void pinned(RecordedEvent event) {
+            if (event.getStartTime().isBefore(measureFrom)) {
+                return;
+            }
+            pinnedEvents.increment();
+            pinnedAt.computeIfAbsent(location(event), frame -> new LongAdder()).increment();
+        }
+
+        private static String location(RecordedEvent event) {
+            if (event.getStackTrace() == null) {
+                return "<no stack trace>";
+            }
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                    return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                }
+            }
+            return "<JDK only>";
+        }
+
+        void print() {
+            long[] all = new long[(int) completed];
+            int offset = 0;
+            for (Latencies connection : latencies) {
+                System.arraycopy(connection.values, 0, all, offset, connection.size);
+                offset += connection.size;
+            }
+            Arrays.sort(all);
+            System.out.printf("%-9s %10.0f %8d %8.1f %8.1f %8.1f %8.1f %8d%n",
+                    name, completed / (double) MEASURE_SECONDS, errors.sum(),
+                    millis(all, 0.50), millis(all, 0.90), millis(all, 0.99), millis(all, 1.0),
+                    pinnedEvents.sum());
+        }
+
+        void printPinning() {
+            if (pinnedAt.isEmpty()) {
+                System.out.printf("No virtual thread pinned for more than %dms%n", PIN_THRESHOLD.toMillis());
+                return;
+            }
+            System.out.printf("Virtual threads pinned for more than %dms at:%n", PIN_THRESHOLD.toMillis());
+            pinnedAt.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                    .limit(10)
+                    .forEach(entry -> System.out.printf("  %6d  %s%n", entry.getValue().sum(), entry.getKey()));
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
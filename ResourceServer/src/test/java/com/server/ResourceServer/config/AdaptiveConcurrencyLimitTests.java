@@ -0,0 +1,143 @@
+package com.server.ResourceServer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Deterministic overload simulation: a server with a fixed number of workers shares them
+// between all requests in flight (like threads contending for CPU and JDBC connections),
+// while open-loop clients send requests at a multiple of its capacity and give up after
+// a deadline. Simulated time advances in 1ms steps; arrivals come from a seeded Random.
+class AdaptiveConcurrencyLimitTests {
+
+    private static final int WORKERS = 8;
+    private static final double SERVICE_MS = 20;
+    private static final double CAPACITY_PER_SECOND = WORKERS * 1000 / SERVICE_MS;
+    private static final long DEADLINE_MS = 1000;
+    private static final int WARMUP_MS = 2_000;
+    private static final int DURATION_MS = 12_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 2, 3, 5 })
+    void goodputStaysNearCapacityUnderOverload(int overload) {
+        long[] clock = new long[1];
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 1000, Duration.ofMillis(250), 0.9,
+                () -> clock[0]);
+
+        Result result = simulate(limit, clock, overload * CAPACITY_PER_SECOND);
+
+        assertThat(result.goodputPerSecond()).isGreaterThan(0.9 * CAPACITY_PER_SECOND);
+        assertThat(result.worstLatencyMs()).isLessThan(DEADLINE_MS);
+        assertThat(limit.getRejected()).isGreaterThan(0);
+        // The limit settles near the concurrency that meets the latency target, far below the maximum
+        assertThat(limit.getLimit()).isBetween(WORKERS, 200);
+    }
+
+    @Test
+    void withoutALimitGoodputCollapses() {
+        long[] clock = new long[1];
+        AdaptiveConcurrencyLimit unlimited = new AdaptiveConcurrencyLimit(100_000, 100_000, 100_000,
+                Duration.ofMillis(250), 0.9, () -> clock[0]);
+
+        Result result = simulate(unlimited, clock, 2 * CAPACITY_PER_SECOND);
+
+        assertThat(result.goodputPerSecond()).isLessThan(0.2 * CAPACITY_PER_SECOND);
+    }
+
+    @Test
+    void limitRecoversAfterASlowdown() {
+        long[] clock = new long[1];
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 4, 1000, Duration.ofMillis(250), 0.9,
+                () -> clock[0]);
+
+        // Every request is slow: one cut per round trip drives the limit to its minimum
+        for (int round = 0; round < 40; round++) {
+            clock[0] += Duration.ofMillis(1).toNanos();
+            List<AdaptiveConcurrencyLimit.Permit> permits = acquireAll(limit);
+            clock[0] += Duration.ofMillis(500).toNanos();
+            permits.forEach(AdaptiveConcurrencyLimit.Permit::release);
+        }
+        assertThat(limit.getLimit()).isEqualTo(4);
+
+        // Fast again: the limit grows back additively, by less than one per round trip
+        for (int round = 0; round < 20; round++) {
+            clock[0] += Duration.ofMillis(1).toNanos();
+            List<AdaptiveConcurrencyLimit.Permit> permits = acquireAll(limit);
+            clock[0] += Duration.ofMillis(10).toNanos();
+            permits.forEach(AdaptiveConcurrencyLimit.Permit::release);
+        }
+        assertThat(limit.getLimit()).isBetween(10, 20);
+    }
+
+    private static List<AdaptiveConcurrencyLimit.Permit> acquireAll(AdaptiveConcurrencyLimit limit) {
+        List<AdaptiveConcurrencyLimit.Permit> permits = new ArrayList<>();
+        Optional<AdaptiveConcurrencyLimit.Permit> permit;
+        while ((permit = limit.tryAcquire()).isPresent()) {
+            permits.add(permit.get());
+        }
+        return permits;
+    }
+
+    private static Result simulate(AdaptiveConcurrencyLimit limit, long[] clock, double offeredPerSecond) {
+        Random random = new Random(42);
+        double meanGapMs = 1000 / offeredPerSecond;
+        double nextArrival = -Math.log(1 - random.nextDouble()) * meanGapMs;
+
+        List<InFlight> active = new ArrayList<>();
+        long completedInTime = 0;
+        long worstLatency = 0;
+        for (int tick = 0; tick < DURATION_MS; tick++) {
+            clock[0] = Duration.ofMillis(tick).toNanos();
+            while (nextArrival < tick + 1) {
+                int arrivedAt = tick;
+                limit.tryAcquire().ifPresent(permit -> active.add(new InFlight(permit, arrivedAt, SERVICE_MS)));
+                nextArrival += -Math.log(1 - random.nextDouble()) * meanGapMs;
+            }
+
+            double share = Math.min(1, (double) WORKERS / Math.max(1, active.size()));
+            clock[0] = Duration.ofMillis(tick + 1).toNanos();
+            int kept = 0;
+            for (InFlight request : active) {
+                request.remainingMs -= share;
+                if (request.remainingMs > 1e-9) {
+                    active.set(kept++, request);
+                    continue;
+                }
+                request.permit.release();
+                long latency = tick + 1 - request.arrivedAt;
+                if (request.arrivedAt >= WARMUP_MS) {
+                    worstLatency = Math.max(worstLatency, latency);
+                    if (latency <= DEADLINE_MS) {
+                        completedInTime++;
+                    }
+                }
+            }
+            active.subList(kept, active.size()).clear();
+        }
+        double measuredSeconds = (DURATION_MS - WARMUP_MS) / 1000.0;
+        return new Result(completedInTime / measuredSeconds, worstLatency);
+    }
+
+    private static final class InFlight {
+        private final AdaptiveConcurrencyLimit.Permit permit;
+        private final int arrivedAt;
+        private double remainingMs;
+
+        private InFlight(AdaptiveConcurrencyLimit.Permit permit, int arrivedAt, double remainingMs) {
+            this.permit = permit;
+            this.arrivedAt = arrivedAt;
+            this.remainingMs = remainingMs;
+        }
+    }
+
+    private record Result(double goodputPerSecond, long worstLatencyMs) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.server.ResourceServer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Roomy LOW lane, adaptive limit fixed at 2: two LOW requests held in the chain use it up
+class PriorityLaneFilterTests {
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 2, 2, Duration.ofMillis(250), 0.9,
+            System::nanoTime);
+    private final PriorityLaneFilter filter = new PriorityLaneFilter(new PriorityLanes(new MockEnvironment()
+            .withProperty("lanes.low.permits", "8")
+            .withProperty("lanes.low.queue", "0"), new SimpleMeterRegistry()), limit);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void saturatingLowStillLetsHighThrough() throws Exception {
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch finish = new CountDownLatch(1);
+        HttpServlet blocking = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                entered.countDown();
+                try {
+                    finish.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        List<Future<Integer>> held = List.of(
+                executor.submit(() -> send("LOW", new MockFilterChain(blocking))),
+                executor.submit(() -> send("LOW", new MockFilterChain(blocking))));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The LOW lane has room, but the limit does not
+        assertThat(send("LOW", new MockFilterChain())).isEqualTo(503);
+        assertThat(send("NORMAL", new MockFilterChain())).isEqualTo(503);
+        // HIGH is never shed by the limit
+        assertThat(send("HIGH", new MockFilterChain())).isEqualTo(200);
+        assertThat(limit.getInFlight()).isEqualTo(2);
+
+        finish.countDown();
+        for (Future<Integer> request : held) {
+            assertThat(request.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+        }
+        assertThat(send("LOW", new MockFilterChain())).isEqualTo(200);
+    }
+
+    private int send(String priority, MockFilterChain chain) throws Exception {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject("caller").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new CustomAuthentication(jwt, List.of(), priority, null, List.of()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users"), response, chain);
+        return response.getStatus();
+    }
+}
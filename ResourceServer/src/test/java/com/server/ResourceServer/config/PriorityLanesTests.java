@@ -0,0 +1,54 @@
+package com.server.ResourceServer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.server.ResourceServer.config.PriorityLanes.Admission;
+import com.server.ResourceServer.config.PriorityLanes.Lane;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Lanes with no queue, so a saturated lane turns callers away at once instead of after a wait
+class PriorityLanesTests {
+
+    private final PriorityLanes lanes = new PriorityLanes(new MockEnvironment()
+            .withProperty("lanes.high.permits", "2")
+            .withProperty("lanes.high.queue", "0")
+            .withProperty("lanes.normal.queue", "0")
+            .withProperty("lanes.low.permits", "1")
+            .withProperty("lanes.low.queue", "0"), new SimpleMeterRegistry());
+
+    @Test
+    void highKeepsItsPermitsWhileLowIsShed() {
+        Lane low = lanes.laneFor("LOW");
+        Lane high = lanes.laneFor("HIGH");
+
+        assertThat(low.acquire()).isEqualTo(Admission.ADMITTED);
+        assertThat(low.acquire()).isEqualTo(Admission.QUEUE_FULL);
+        assertThat(low.acquire()).isEqualTo(Admission.QUEUE_FULL);
+
+        // However busy LOW is, HIGH gets every one of its permits
+        assertThat(high.acquire()).isEqualTo(Admission.ADMITTED);
+        assertThat(high.acquire()).isEqualTo(Admission.ADMITTED);
+        assertThat(high.acquire()).isEqualTo(Admission.QUEUE_FULL);
+
+        // A released permit goes back to its own lane only
+        high.release();
+        assertThat(low.acquire()).isEqualTo(Admission.QUEUE_FULL);
+        low.release();
+        assertThat(low.acquire()).isEqualTo(Admission.ADMITTED);
+    }
+
+    @Test
+    void unknownOrMissingPrioritiesAreNormal() {
+        assertThat(lanes.laneFor("high").getName()).isEqualTo("high");
+        assertThat(lanes.laneFor("low").getName()).isEqualTo("low");
+        assertThat(lanes.laneFor("NORMAL").getName()).isEqualTo("normal");
+        assertThat(lanes.laneFor("urgent").getName()).isEqualTo("normal");
+        assertThat(lanes.laneFor(null).getName()).isEqualTo("normal");
+        // The converter turns a missing claim into the string "null"
+        assertThat(lanes.laneFor("null").getName()).isEqualTo("normal");
+    }
+}
@@ -0,0 +1,225 @@
+package com.server.ResourceServer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.CreateCompanyRequest;
+import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.dto.UserDTO;
+import com.server.ResourceServer.service.CompanyService;
+import com.server.ResourceServer.service.ReadCoalescer;
+import com.server.ResourceServer.service.UserService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Two in-memory H2 databases stand in for the primary and its replica. Replication is
+// simulated by replaying the primary's SCRIPT into the replica whenever a test calls replicate().
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=" + ReadWriteRoutingTests.REPLICA_URL,
+        "datasource.read-your-writes=PT5S" })
+class ReadWriteRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoSpyBean
+    private UserService userService;
+
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void startReplicated() throws SQLException {
+        replicate();
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertThat(databaseIn(true)).isEqualTo("ROUTING-REPLICA");
+        assertThat(databaseIn(false)).isEqualTo("ROUTING-PRIMARY");
+    }
+
+    @Test
+    void readsSeeTheReplicaUntilItCatchesUp() throws SQLException {
+        UserDTO created = userService.createUser(
+                new CreateUserRequest("rw-lagging", "rw-lagging@example.com", "First", "Last"));
+
+        // Not replicated yet: the read-only lookup goes to the replica and misses
+        assertThat(findUsername(created.getId())).isNull();
+
+        replicate();
+        assertThat(findUsername(created.getId())).isEqualTo("rw-lagging");
+    }
+
+    @Test
+    void writersReadTheirOwnWrites() {
+        signIn("writer");
+        UserDTO created = userService.createUser(
+                new CreateUserRequest("rw-own", "rw-own@example.com", "First", "Last"));
+
+        // Within the read-your-writes window the writer's reads stay on the primary
+        assertThat(databaseIn(true)).isEqualTo("ROUTING-PRIMARY");
+        assertThat(userService.getUserById(created.getId()).getUsername()).isEqualTo("rw-own");
+
+        // Everyone else still reads the replica
+        signIn("someone-else");
+        assertThat(databaseIn(true)).isEqualTo("ROUTING-REPLICA");
+    }
+
+    @Test
+    void replicaReadsDoNotPopulateTheCaches() throws SQLException {
+        signIn("writer");
+        UserDTO created = userService.createUser(
+                new CreateUserRequest("rw-cached", "rw-cached@example.com", "First", "Last"));
+        CompanyDTO company = companyService.createCompany(
+                new CreateCompanyRequest("RW Cached", "1 Main St", "Software", "1-10"));
+        replicate();
+        String staleEtag = userService.getUserEtag(created.getId());
+        userService.updateUser(created.getId(),
+                new CreateUserRequest("rw-cached", "rw-cached-new@example.com", "First", "Last"));
+        userService.addUserToCompany(created.getId(), company.getId());
+        // As if the entries had expired: the next reads go to the databases
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        // Someone else reads through the lagging replica and gets the old row...
+        signIn("someone-else");
+        UserDTO lagging = userService.getUserById(created.getId());
+        assertThat(lagging.getEmail()).isEqualTo("rw-cached@example.com");
+        assertThat(lagging.getCompanyIds()).isEmpty();
+        assertThat(userService.getUserByUsername("rw-cached").getCompanyIds()).isEmpty();
+
+        // ...which must not be what the writer's primary reads find in the entity or query cache
+        signIn("writer");
+        assertThat(databaseIn(true)).isEqualTo("ROUTING-PRIMARY");
+        assertThat(userService.getUserEtag(created.getId())).isNotEqualTo(staleEtag);
+        UserDTO current = userService.getCurrentUser(null, "rw-cached");
+        assertThat(current.getEmail()).isEqualTo("rw-cached-new@example.com");
+        assertThat(current.getCompanyIds()).containsExactly(company.getId());
+    }
+
+    @Test
+    void writersDoNotJoinAReplicaLoadThroughTheCoalescer() throws Exception {
+        signIn("writer");
+        UserDTO created = userService.createUser(
+                new CreateUserRequest("rw-coalesced", "rw-coalesced@example.com", "First", "Last"));
+        replicate();
+        userService.updateUser(created.getId(),
+                new CreateUserRequest("rw-coalesced", "rw-coalesced-new@example.com", "First", "Last"));
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        // Someone else's load reads the lagging replica and stays in flight until released
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            Object user = invocation.callRealMethod();
+            loaded.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return user;
+        }).when(userService).getUserById(created.getId());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<UserDTO> lagging = executor.submit(() -> {
+                signIn("someone-else");
+                return readCoalescer.getUserById(created.getId());
+            });
+            assertThat(loaded.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // The writer loads on their own from the primary instead of waiting for that load
+            Mockito.doCallRealMethod().when(userService).getUserById(created.getId());
+            assertThat(readCoalescer.getUserById(created.getId()).getEmail())
+                    .isEqualTo("rw-coalesced-new@example.com");
+            release.countDown();
+            assertThat(lagging.get(5, TimeUnit.SECONDS).getEmail()).isEqualTo("rw-coalesced@example.com");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private String databaseIn(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(readOnly);
+        return template.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT DATABASE()", String.class));
+    }
+
+    private String findUsername(Long id) {
+        TransactionTemplate template = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        template.setReadOnly(true);
+        return template.execute(status -> new JdbcTemplate(dataSource).query(
+                "SELECT username FROM users WHERE id = ?", rs -> rs.next() ? rs.getString(1) : null, id));
+    }
+
+    private static void signIn(String name) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(name, null, "ROLE_USER"));
+    }
+
+    // Copies the primary's schema and rows into the replica, replacing whatever it held
+    private void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = primaryDataSource.getConnection();
+                Statement statement = primary.createStatement();
+                ResultSet rs = statement.executeQuery("SCRIPT")) {
+            while (rs.next()) {
+                script.add(rs.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+                Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
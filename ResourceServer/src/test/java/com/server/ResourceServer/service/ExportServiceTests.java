@@ -0,0 +1,90 @@
+package com.server.ResourceServer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+// Streams a small users table from a bare H2 database, no application context,
+// with a fetch size of 2 so the output spans several flush batches
+class ExportServiceTests {
+
+    private static final String URL = "jdbc:h2:mem:export-service;DB_CLOSE_DELAY=-1";
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private JdbcTemplate jdbcTemplate;
+    private ExportService exportService;
+
+    @BeforeEach
+    void createTables() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(255), email VARCHAR(255), "
+                + "first_name VARCHAR(255), last_name VARCHAR(255), created_at TIMESTAMP(6), updated_at TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE TABLE user_company (user_id BIGINT, company_id BIGINT)");
+        exportService = new ExportService(dataSource, objectMapper, 2);
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void writesOneLinePerUserAndFlushesPerBatch() throws IOException {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO users VALUES (?, ?, ?, 'First', 'Last', ?, ?)",
+                    id, "export-" + id, "export-" + id + "@example.com", now, now);
+        }
+        jdbcTemplate.update("INSERT INTO user_company VALUES (2, 10), (2, 11), (4, 12)");
+
+        CountingStream out = new CountingStream();
+        exportService.exportUsers(out);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        assertThat(lines).extracting(line -> line.get("username").asText())
+                .containsExactly("export-1", "export-2", "export-3", "export-4", "export-5");
+        assertThat(lines.get(1).get("companyIds")).hasSize(2);
+        assertThat(lines.get(3).get("companyIds")).hasSize(1);
+        // After the first row, after rows 2 and 4, and at the end; not once per row
+        assertThat(out.flushes).isEqualTo(4);
+    }
+
+    private static final class CountingStream extends FilterOutputStream {
+        private int flushes;
+
+        CountingStream() {
+            super(new ByteArrayOutputStream());
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushes++;
+            super.flush();
+        }
+
+        @Override
+        public String toString() {
+            return ((ByteArrayOutputStream) out).toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.server.ResourceServer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.dto.ImportError;
+import com.server.ResourceServer.dto.ImportReport;
+import com.server.ResourceServer.repository.UserRepository;
+
+@SpringBootTest(properties = "import.batch-size=3")
+class ImportServiceTests {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void aRolledBackChunkLeavesNothingBehind() throws IOException {
+        List<CreateUserRequest> rows = List.of(
+                // First chunk: rolled back by the last row, which is too long for its column
+                new CreateUserRequest("import-retry", "import-retry@example.com", "First", "Last"),
+                new CreateUserRequest("", "import-blank@example.com", "First", "Last"),
+                new CreateUserRequest("import-broken", "import-broken@example.com", "First", "x".repeat(300)),
+                // Second chunk: the first row again, which must not count as a duplicate
+                new CreateUserRequest("import-retry", "import-retry@example.com", "First", "Last"),
+                new CreateUserRequest("import-retry", "import-retry-2@example.com", "First", "Last"));
+
+        ImportReport report = importService.importUsers(
+                new ByteArrayInputStream(objectMapper.writeValueAsBytes(rows)), MediaType.APPLICATION_JSON);
+
+        assertThat(report.getReceived()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(userRepository.existsByUsername("import-retry")).isTrue();
+        assertThat(userRepository.existsByUsername("import-broken")).isFalse();
+        // Each row of the failed chunk once, without the validation error it had before the rollback
+        assertThat(report.getErrors())
+                .extracting(ImportError::getRow, error -> error.getMessage().startsWith("Batch failed"))
+                .containsExactly(tuple(1L, true), tuple(2L, true), tuple(3L, true), tuple(5L, false));
+        assertThat(report.getErrors().get(3).getMessage()).isEqualTo("Duplicate username in import: import-retry");
+    }
+}
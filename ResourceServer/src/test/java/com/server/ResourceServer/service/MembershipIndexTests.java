@@ -0,0 +1,148 @@
+package com.server.ResourceServer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.server.ResourceServer.dto.MembershipQueryResponse;
+import com.server.ResourceServer.event.CompanyChangedEvent;
+import com.server.ResourceServer.event.CompanySnapshot;
+import com.server.ResourceServer.event.MembershipChangedEvent;
+import com.server.ResourceServer.event.UserChangedEvent;
+import com.server.ResourceServer.event.UserSnapshot;
+
+// The index over a bare H2 join table, no application context. Changes are made to the table
+// first and then announced, as the services do after commit.
+class MembershipIndexTests {
+
+    private static final String URL = "jdbc:h2:mem:membership-index;DB_CLOSE_DELAY=-1";
+    // Largest id the index holds; above 2^31, so it only sorts last when compared unsigned
+    private static final long MAX_ID = 0xFFFF_FFFFL;
+
+    private JdbcTemplate jdbcTemplate;
+    private MembershipIndex index;
+
+    @BeforeEach
+    void createIndex() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user_company (user_id BIGINT, company_id BIGINT, "
+                + "PRIMARY KEY (user_id, company_id))");
+        // Company 10: users 1-5; company 20: users 2, 4 and MAX_ID; company 30: user 5
+        for (long user = 1; user <= 5; user++) {
+            insert(user, 10);
+        }
+        insert(2, 20);
+        insert(4, 20);
+        insert(MAX_ID, 20);
+        insert(5, 30);
+        index = new MembershipIndex(dataSource, 100);
+        index.buildIndex();
+    }
+
+    @AfterEach
+    void dropTable() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void combinesWithAllOrAny() {
+        assertThat(index.findUsers(List.of(10L, 20L), true, null, 100).getItems()).containsExactly(2L, 4L);
+        assertThat(index.findUsers(List.of(10L, 20L), false, null, 100).getItems())
+                .containsExactly(1L, 2L, 3L, 4L, 5L, MAX_ID);
+        assertThat(index.findCompanies(List.of(4L, 5L), true, null, 100).getItems()).containsExactly(10L);
+        assertThat(index.findCompanies(List.of(4L, 5L), false, null, 100).getItems()).containsExactly(10L, 20L, 30L);
+
+        // An unknown id has no members: it empties an intersection and adds nothing to a union
+        assertThat(index.findUsers(List.of(10L, 99L), true, null, 100).getTotal()).isZero();
+        assertThat(index.findUsers(List.of(30L, 99L), false, null, 100).getItems()).containsExactly(5L);
+        assertThat(index.countMembers(List.of(20L, 99L, 10L))).containsExactly(
+                Map.entry(20L, 3), Map.entry(99L, 0), Map.entry(10L, 5));
+    }
+
+    @Test
+    void pagesWithTheCursor() {
+        MembershipQueryResponse first = index.findUsers(List.of(10L, 20L), false, null, 4);
+        assertThat(first.getItems()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(first.getNextCursor()).isEqualTo(4L);
+        assertThat(first.getTotal()).isEqualTo(6);
+
+        MembershipQueryResponse last = index.findUsers(List.of(10L, 20L), false, first.getNextCursor(), 4);
+        assertThat(last.getItems()).containsExactly(5L, MAX_ID);
+        assertThat(last.getNextCursor()).isNull();
+        // The total is of the whole result, not the page
+        assertThat(last.getTotal()).isEqualTo(6);
+
+        // A cursor need not be an id in the result
+        assertThat(index.findUsers(List.of(10L), false, 2L, 1).getItems()).containsExactly(3L);
+    }
+
+    @Test
+    void cursorAtTheTopOfTheIdRange() {
+        assertThat(index.findUsers(List.of(20L), false, MAX_ID - 1, 10).getItems()).containsExactly(MAX_ID);
+        // Nothing can follow the largest id; advancing past it would wrap around to 0
+        MembershipQueryResponse past = index.findUsers(List.of(20L), false, MAX_ID, 10);
+        assertThat(past.getItems()).isEmpty();
+        assertThat(past.getNextCursor()).isNull();
+        assertThat(past.getTotal()).isEqualTo(3);
+        assertThat(index.findUsers(List.of(20L), false, Long.MAX_VALUE, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void addsAndRemovesMemberships() {
+        insert(6, 30);
+        insert(6, 40);
+        index.onMembershipChanged(new MembershipChangedEvent(List.of(6L), List.of(30L, 40L)));
+
+        assertThat(index.findUsers(List.of(30L), false, null, 100).getItems()).containsExactly(5L, 6L);
+        assertThat(index.findCompanies(List.of(6L), false, null, 100).getItems()).containsExactly(30L, 40L);
+
+        jdbcTemplate.update("DELETE FROM user_company WHERE user_id = 6 AND company_id = 40");
+        index.onMembershipChanged(MembershipChangedEvent.of(6L, 40L));
+
+        assertThat(index.findCompanies(List.of(6L), false, null, 100).getItems()).containsExactly(30L);
+        assertThat(index.countMembers(List.of(40L))).containsEntry(40L, 0);
+    }
+
+    @Test
+    void replacesTheAffectedPairsWithTheCommittedState() {
+        // User 2 moves from company 20 to 30 while user 4 stays put; the event names all the pairs
+        jdbcTemplate.update("DELETE FROM user_company WHERE user_id = 2 AND company_id = 20");
+        insert(2, 30);
+        index.onMembershipChanged(new MembershipChangedEvent(List.of(2L, 4L), List.of(20L, 30L)));
+
+        assertThat(index.findUsers(List.of(20L), false, null, 100).getItems()).containsExactly(4L, MAX_ID);
+        assertThat(index.findUsers(List.of(30L), false, null, 100).getItems()).containsExactly(2L, 5L);
+        assertThat(index.findCompanies(List.of(2L), false, null, 100).getItems()).containsExactly(10L, 30L);
+        assertThat(index.findCompanies(List.of(4L), false, null, 100).getItems()).containsExactly(10L, 20L);
+
+        // Replaying an event changes nothing: it reads the same committed rows again
+        index.onMembershipChanged(new MembershipChangedEvent(List.of(2L, 4L), List.of(20L, 30L)));
+        assertThat(index.countMembers(List.of(20L, 30L))).containsExactly(Map.entry(20L, 2), Map.entry(30L, 2));
+    }
+
+    @Test
+    void deletedUsersAndCompaniesLeaveBothSides() {
+        index.onUserChanged(UserChangedEvent.deleted(new UserSnapshot(4L, 0L, "u4", "u4@example.com", "U", "Four")));
+
+        assertThat(index.findUsers(List.of(10L), false, null, 100).getItems()).containsExactly(1L, 2L, 3L, 5L);
+        assertThat(index.findUsers(List.of(20L), false, null, 100).getItems()).containsExactly(2L, MAX_ID);
+        assertThat(index.findCompanies(List.of(4L), false, null, 100).getTotal()).isZero();
+
+        index.onCompanyChanged(CompanyChangedEvent.deleted(new CompanySnapshot(30L, 0L, "C30", null, null, null)));
+
+        assertThat(index.countMembers(List.of(30L))).containsEntry(30L, 0);
+        assertThat(index.findCompanies(List.of(5L), false, null, 100).getItems()).containsExactly(10L);
+    }
+
+    private void insert(long userId, long companyId) {
+        jdbcTemplate.update("INSERT INTO user_company VALUES (?, ?)", userId, companyId);
+    }
+}
@@ -0,0 +1,94 @@
+package com.server.ResourceServer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.CreateCompanyRequest;
+import com.server.ResourceServer.dto.CreateUserRequest;
+import com.server.ResourceServer.dto.PageResponse;
+import com.server.ResourceServer.dto.UserDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class MembershipQueryCountTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        List<CompanyDTO> companies = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            companies.add(companyService.createCompany(
+                    new CreateCompanyRequest("qc-company-" + i, "Street " + i, "Tech", "10")));
+        }
+        for (int i = 0; i < 40; i++) {
+            UserDTO user = userService.createUser(
+                    new CreateUserRequest("qc-user-" + i, "qc-user-" + i + "@example.com", "First", "Last"));
+            userService.addUserToCompany(user.getId(), companies.get(i).getId());
+            userService.addUserToCompany(user.getId(), companies.get((i + 1) % companies.size()).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void userPageQueryCountDoesNotGrowWithPageSize() {
+        long small = statementsFor(() -> userService.getUsersPage(null, 5));
+        long large = statementsFor(() -> userService.getUsersPage(null, 40));
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void companyPageQueryCountDoesNotGrowWithPageSize() {
+        long small = statementsFor(() -> companyService.getCompaniesPage(null, 5));
+        long large = statementsFor(() -> companyService.getCompaniesPage(null, 40));
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void pageCarriesMembershipIds() {
+        PageResponse<UserDTO> page = userService.getUsersPage(null, 500);
+
+        assertThat(page.getItems())
+                .filteredOn(user -> user.getUsername().startsWith("qc-user-"))
+                .hasSize(40)
+                .allSatisfy(user -> assertThat(user.getCompanyIds()).hasSize(2));
+    }
+
+    private long statementsFor(Runnable action) {
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,109 @@
+package com.server.ResourceServer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// The index on its own, with two fields weighted 8 (name) and 2 (details)
+class TokenIndexTests {
+
+    private final TokenIndex index = new TokenIndex(8, 2);
+
+    @Test
+    void matchesWholeTokensAndPrefixes() {
+        index.put(1, 1, new String[] {"Jane Doe", "jane.doe@example.com"});
+        index.put(2, 1, new String[] {"Janet Smith", null});
+        index.put(3, 1, new String[] {"John Doe", null});
+
+        assertThat(docs(index.search(List.of("jan"), 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(docs(index.search(List.of("jan", "doe"), 10))).containsExactly(1L);
+        assertThat(index.search(List.of("john", "smith"), 10)).isEqualTo(TokenIndex.Result.EMPTY);
+    }
+
+    @Test
+    void ranksAWholeTokenAboveAPrefixAndNameAboveDetails() {
+        index.put(1, 1, new String[] {"Janet", null});
+        index.put(2, 1, new String[] {"Jane", null});
+        index.put(3, 1, new String[] {"Someone", "jane"});
+
+        TokenIndex.Result result = index.search(List.of("jane"), 10);
+
+        assertThat(result.hits()).containsExactly(
+            new TokenIndex.Hit(2, 16), new TokenIndex.Hit(1, 8), new TokenIndex.Hit(3, 4));
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void keepsTheNewestVersionAndIgnoresPutsAfterARemove() {
+        index.put(1, 2, new String[] {"Alice", null});
+        index.put(1, 1, new String[] {"Bob", null});
+        assertThat(docs(index.search(List.of("alice"), 10))).containsExactly(1L);
+        assertThat(docs(index.search(List.of("bob"), 10))).isEmpty();
+
+        index.put(1, 3, new String[] {"Carol", null});
+        assertThat(docs(index.search(List.of("alice"), 10))).isEmpty();
+
+        index.remove(1);
+        index.put(1, 4, new String[] {"Carol", null});
+        assertThat(docs(index.search(List.of("carol"), 10))).isEmpty();
+        assertThat(index.tokenCount()).isZero();
+    }
+
+    @Test
+    void forgetsRemovedDocumentsOnceTheirRetentionHasPassed() {
+        TokenIndex expiring = new TokenIndex(Duration.ZERO, 8, 2);
+        for (int doc = 1; doc <= 3; doc++) {
+            expiring.put(doc, 1, new String[] {"Alice", null});
+            expiring.remove(doc);
+        }
+
+        // Each write drops the markers that have expired before it, leaving only the last one
+        assertThat(expiring.documentCount()).isEqualTo(1);
+        expiring.put(4, 1, new String[] {"Bob", null});
+        assertThat(expiring.documentCount()).isEqualTo(1);
+        assertThat(docs(expiring.search(List.of("alice"), 10))).isEmpty();
+    }
+
+    @Test
+    void returnsTheTopHitsAndCountsAllMatches() {
+        for (int doc = 1; doc <= 10; doc++) {
+            index.put(doc, 1, new String[] {"Acme", doc % 2 == 0 ? "acme" : null});
+        }
+
+        TokenIndex.Result result = index.search(List.of("acme"), 3);
+
+        // Ties go to the lower id
+        assertThat(docs(result)).containsExactly(2L, 4L, 6L);
+        assertThat(result.total()).isEqualTo(10);
+        assertThat(result.truncated()).isFalse();
+    }
+
+    @Test
+    void reportsAPrefixTooBroadToExpand() {
+        for (int doc = 1; doc <= 100; doc++) {
+            index.put(doc, 1, new String[] {String.format("user%07d", doc), null});
+        }
+        index.put(101, 1, new String[] {"user", null});
+
+        TokenIndex.Result broad = index.search(List.of("user"), 10);
+        assertThat(broad.truncated()).isTrue();
+        assertThat(docs(broad)).containsExactly(101L);
+        assertThat(broad.total()).isEqualTo(1);
+
+        TokenIndex.Result none = index.search(List.of("us"), 10);
+        assertThat(none.truncated()).isTrue();
+        assertThat(none.total()).isZero();
+
+        // A longer prefix narrows it down to user0000010 .. user0000019
+        TokenIndex.Result narrow = index.search(List.of("user000001"), 20);
+        assertThat(narrow.truncated()).isFalse();
+        assertThat(narrow.total()).isEqualTo(10);
+    }
+
+    private static List<Long> docs(TokenIndex.Result result) {
+        return result.hits().stream().map(TokenIndex.Hit::doc).toList();
+    }
+}
@@ -0,0 +1,185 @@
+package com.server.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.UserDTO;
+import com.server.ResourceServer.model.Company;
+import com.server.ResourceServer.model.User;
+import com.server.ResourceServer.repository.CompanyRepository;
+import com.server.ResourceServer.repository.MembershipView;
+import com.server.ResourceServer.repository.UserRepository;
+import com.server.ResourceServer.service.CompanyService;
+import com.server.ResourceServer.service.UserService;
+
+// Entity to DTO conversion in UserService and CompanyService, the last step of every read.
+// The membership query is answered by a stub with rows built up front, so what is measured
+// is grouping the join rows and building the DTOs: one entity, and a page of entities.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoConversionBenchmark {
+
+    private static final MethodHandle USER_TO_DTO;
+    private static final MethodHandle USERS_TO_DTOS;
+    private static final MethodHandle COMPANY_TO_DTO;
+    private static final MethodHandle COMPANIES_TO_DTOS;
+
+    static {
+        try {
+            MethodHandles.Lookup users = MethodHandles.privateLookupIn(UserService.class, MethodHandles.lookup());
+            USER_TO_DTO = users.findVirtual(UserService.class, "convertToDTO",
+                    MethodType.methodType(UserDTO.class, User.class));
+            USERS_TO_DTOS = users.findVirtual(UserService.class, "convertToDTOs",
+                    MethodType.methodType(List.class, List.class));
+            MethodHandles.Lookup companies = MethodHandles.privateLookupIn(CompanyService.class, MethodHandles.lookup());
+            COMPANY_TO_DTO = companies.findVirtual(CompanyService.class, "convertToDTO",
+                    MethodType.methodType(CompanyDTO.class, Company.class));
+            COMPANIES_TO_DTOS = companies.findVirtual(CompanyService.class, "convertToDTOs",
+                    MethodType.methodType(List.class, List.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final int MEMBERSHIPS_PER_ENTITY = 3;
+
+    @State(Scope.Benchmark)
+    public static class Single {
+        private User user;
+        private Company company;
+        private UserService userService;
+        private CompanyService companyService;
+
+        @Setup
+        public void setUp() {
+            user = user(1);
+            company = company(1);
+            userService = userService(membershipsOfUsers(List.of(1L)));
+            companyService = companyService(membershipsOfCompanies(List.of(1L)));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Page {
+        // 50 is the usual page, 500 the largest the API hands out
+        @Param({ "50", "500" })
+        private int size;
+
+        private List<User> users;
+        private List<Company> companies;
+        private UserService userService;
+        private CompanyService companyService;
+
+        @Setup
+        public void setUp() {
+            users = new ArrayList<>();
+            companies = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= size; id++) {
+                users.add(user(id));
+                companies.add(company(id));
+                ids.add(id);
+            }
+            userService = userService(membershipsOfUsers(ids));
+            companyService = companyService(membershipsOfCompanies(ids));
+        }
+    }
+
+    @Benchmark
+    public UserDTO userToDto(Single single) throws Throwable {
+        return (UserDTO) USER_TO_DTO.invokeExact(single.userService, single.user);
+    }
+
+    @Benchmark
+    public List<?> userPageToDtos(Page page) throws Throwable {
+        return (List<?>) USERS_TO_DTOS.invokeExact(page.userService, (List<?>) page.users);
+    }
+
+    @Benchmark
+    public CompanyDTO companyToDto(Single single) throws Throwable {
+        return (CompanyDTO) COMPANY_TO_DTO.invokeExact(single.companyService, single.company);
+    }
+
+    @Benchmark
+    public List<?> companyPageToDtos(Page page) throws Throwable {
+        return (List<?>) COMPANIES_TO_DTOS.invokeExact(page.companyService, (List<?>) page.companies);
+    }
+
+    private static User user(long id) {
+        User user = new User("user-" + id, "user-" + id + "@example.com", "First " + id, "Last " + id);
+        user.setId(id);
+        return user;
+    }
+
+    private static Company company(long id) {
+        Company company = new Company("Company " + id, id + " Main Street", "Technology", "51-200");
+        company.setId(id);
+        return company;
+    }
+
+    private static UserService userService(List<MembershipView> rows) {
+        UserService service = new UserService();
+        Stubs.inject(service, "userRepository",
+                Stubs.repository(UserRepository.class, "findMembershipsByUserIds", args -> rows));
+        return service;
+    }
+
+    private static CompanyService companyService(List<MembershipView> rows) {
+        CompanyService service = new CompanyService();
+        Stubs.inject(service, "companyRepository",
+                Stubs.repository(CompanyRepository.class, "findMembershipsByCompanyIds", args -> rows));
+        return service;
+    }
+
+    private static List<MembershipView> membershipsOfUsers(List<Long> userIds) {
+        List<MembershipView> rows = new ArrayList<>();
+        for (Long userId : userIds) {
+            for (long other = 1; other <= MEMBERSHIPS_PER_ENTITY; other++) {
+                rows.add(new Membership(userId, userId * 31 + other));
+            }
+        }
+        return rows;
+    }
+
+    private static List<MembershipView> membershipsOfCompanies(List<Long> companyIds) {
+        List<MembershipView> rows = new ArrayList<>();
+        for (Long companyId : companyIds) {
+            for (long other = 1; other <= MEMBERSHIPS_PER_ENTITY; other++) {
+                rows.add(new Membership(companyId * 31 + other, companyId));
+            }
+        }
+        return rows;
+    }
+
+    private record Membership(Long userId, Long companyId) implements MembershipView {
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public Long getCompanyId() {
+            return companyId;
+        }
+    }
+}
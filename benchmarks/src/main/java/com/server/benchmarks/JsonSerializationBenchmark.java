@@ -0,0 +1,104 @@
+package com.server.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.server.ResourceServer.dto.CompanyDTO;
+import com.server.ResourceServer.dto.UserDTO;
+
+// Jackson serialization of the DTO lists controllers return, configured like Spring Boot's
+// ObjectMapper (Java time module, ISO dates). Output goes to a byte-counting sink, as it would
+// to the response stream, so buffer growth does not dominate the allocation figures.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // 50 is the usual page, 500 the largest the API hands out
+    @Param({ "50", "500" })
+    private int size;
+
+    private ObjectWriter userListWriter;
+    private ObjectWriter companyListWriter;
+    private List<UserDTO> users;
+    private List<CompanyDTO> companies;
+    private final CountingOutputStream sink = new CountingOutputStream();
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        userListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, UserDTO.class));
+        companyListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, CompanyDTO.class));
+
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 15, 9, 30, 12, 345_000_000);
+        users = new ArrayList<>();
+        companies = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            users.add(new UserDTO(id, "user-" + id, "user-" + id + "@example.com", "First " + id, "Last " + id,
+                    createdAt, createdAt.plusDays(id), Set.of(id * 31 + 1, id * 31 + 2, id * 31 + 3)));
+            companies.add(new CompanyDTO(id, "Company " + id, id + " Main Street", "Technology", "51-200",
+                    createdAt, createdAt.plusDays(id), Set.of(id * 31 + 1, id * 31 + 2, id * 31 + 3)));
+        }
+    }
+
+    @Benchmark
+    public long userList() throws IOException {
+        sink.reset();
+        userListWriter.writeValue(sink, users);
+        return sink.count;
+    }
+
+    @Benchmark
+    public long companyList() throws IOException {
+        sink.reset();
+        companyListWriter.writeValue(sink, companies);
+        return sink.count;
+    }
+
+    // Counts what is written; close() is a no-op so the writer can reuse it
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        void reset() {
+            count = 0;
+        }
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
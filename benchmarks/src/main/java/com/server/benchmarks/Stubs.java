@@ -0,0 +1,34 @@
+package com.server.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.function.Function;
+
+// Stand-ins for Spring Data repositories, so benchmarks measure the code around a query
+// without a database: one method answers, every other method fails loudly.
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static <T> T repository(Class<T> type, String method, Function<Object[], Object> answer) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, called, args) -> {
+            if (called.getName().equals(method)) {
+                return answer.apply(args);
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + called.getName() + " is not stubbed");
+        });
+        return type.cast(stub);
+    }
+
+    // Sets an @Autowired field the way the container would
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getName(), e);
+        }
+    }
+}
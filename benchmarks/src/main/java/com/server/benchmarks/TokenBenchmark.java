@@ -0,0 +1,117 @@
+package com.server.benchmarks;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.server.AuthorizationServer.config.CustomUserService;
+import com.server.AuthorizationServer.models.User;
+import com.server.AuthorizationServer.repository.UserRepository;
+import com.server.ResourceServer.config.CustomAuthentication;
+import com.server.ResourceServer.config.JwtAuthenticationConverter;
+
+// The token path across both servers: the AuthorizationServer loads a user's authorities and
+// signs an RS256 access token with the claims it adds; the ResourceServer verifies the token
+// against the public key and converts it into its authentication. Same 2048-bit key size and
+// claims as the servers use.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080";
+
+    private NimbusJwtEncoder encoder;
+    private NimbusJwtDecoder decoder;
+    private JwtEncoderParameters parameters;
+    private String token;
+    private Jwt jwt;
+    private JwtAuthenticationConverter converter;
+    private UserDetails principal;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        RSAKey rsaKey = new RSAKeyGenerator(2048).keyID(UUID.randomUUID().toString()).generate();
+        encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+        decoder = NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(ISSUER));
+
+        // Long-lived, so the token stays valid for however long the run takes
+        Instant issuedAt = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject("alice")
+                .audience(List.of("react-client"))
+                .issuedAt(issuedAt)
+                .notBefore(issuedAt)
+                .expiresAt(issuedAt.plus(7, ChronoUnit.DAYS))
+                .id(UUID.randomUUID().toString())
+                .claim("scope", List.of("openid", "read", "write"))
+                .claim("priority", "HIGH")
+                .claim("user_id", 42L)
+                .claim("roles", List.of("USER", "ADMIN"))
+                .build();
+        parameters = JwtEncoderParameters.from(JwsHeader.with(SignatureAlgorithm.RS256).build(), claims);
+        token = encoder.encode(parameters).getTokenValue();
+        jwt = decoder.decode(token);
+        converter = new JwtAuthenticationConverter();
+
+        User user = new User("alice", "alice@example.com", "{noop}password", "USER, ADMIN");
+        CustomUserService userService = new CustomUserService(
+                Stubs.repository(UserRepository.class, "findByUsername", args -> Optional.of(user)));
+        principal = userService.loadUserByUsername("alice");
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> authorities() {
+        return principal.getAuthorities();
+    }
+
+    @Benchmark
+    public Jwt sign() {
+        return encoder.encode(parameters);
+    }
+
+    @Benchmark
+    public Jwt verify() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public CustomAuthentication convert() {
+        return converter.convert(jwt);
+    }
+}
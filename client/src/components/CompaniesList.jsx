@@ -11,12 +11,26 @@ const CompaniesList = () => {
   const [error, setError] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [industryFilter, setIndustryFilter] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
 
   const fetchCompanies = async () => {
     try {
       setLoading(true);
-      const data = await companyAPI.getAllCompanies(user.access_token);
-      setCompanies(data);
+      const page = await companyAPI.getAllCompanies(user.access_token);
+      setCompanies(page.items);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  const loadMoreCompanies = async () => {
+    try {
+      const page = await companyAPI.getAllCompanies(user.access_token, nextCursor);
+      setCompanies([...companies, ...page.items]);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError(err.message);
     } finally {
@@ -183,12 +197,20 @@ const CompaniesList = () => {
         )}
       </div>
 
+      {nextCursor != null && (
+        <div className="text-center mt-3">
+          <button className="btn btn-outline-primary" onClick={loadMoreCompanies}>
+            Load More
+          </button>
+        </div>
+      )}
+
       {/* Stats */}
       <div className="row mt-4">
         <div className="col-md-3">
           <div className="card text-center bg-light">
             <div className="card-body">
-              <h5 className="card-title">Total Companies</h5>
+              <h5 className="card-title">Loaded Companies</h5>
               <p className="display-6">{companies.length}</p>
             </div>
           </div>
@@ -29,9 +29,10 @@ const CompanyDetail = () => {
   const fetchCompanyAndUsers = async () => {
     try {
       setLoading(true);
-      const [companyData, allUsers] = await Promise.all([
+      const [companyData, companyUsers, usersPage] = await Promise.all([
         companyAPI.getCompanyById(authUser.access_token, id),
-        userAPI.getAllUsers(authUser.access_token)
+        userAPI.getUsersByCompany(authUser.access_token, id),
+        userAPI.getAllUsers(authUser.access_token, null, 100)
       ]);
       
       setCompany(companyData);
@@ -42,14 +43,10 @@ const CompanyDetail = () => {
         companySize: companyData.companySize || ''
       });
 
-      // Get company's users
-      const companyUsers = allUsers.filter(u => 
-        companyData.userIds?.includes(u.id)
-      );
       setUsers(companyUsers);
 
-      // Get available users (not assigned to company)
-      const available = allUsers.filter(u => 
+      // Get available users (not assigned to company) from the first page
+      const available = usersPage.items.filter(u => 
         !companyData.userIds?.includes(u.id)
       );
       setAvailableUsers(available);
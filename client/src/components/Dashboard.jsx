@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { useAuth } from '../providers/AuthContextProvider';
-import { userAPI, companyAPI } from '../services/apiService';
+import { userAPI, statsAPI } from '../services/apiService';
 
 const Dashboard = () => {
   const { user, logout } = useAuth();
@@ -24,19 +24,18 @@ const Dashboard = () => {
   const fetchDashboardData = async () => {
     try {
       setLoading(true);
-      const [users, companies, userInfo] = await Promise.all([
-        userAPI.getAllUsers(user.access_token),
-        companyAPI.getAllCompanies(user.access_token),
+      const [dashboardStats, userInfo] = await Promise.all([
+        statsAPI.getStats(user.access_token, 5),
         userAPI.getCurrentUserInfo(user.access_token).catch(() => null)
       ]);
 
       setCurrentUser(userInfo?.user);
       
       setStats({
-        totalUsers: users.length,
-        totalCompanies: companies.length,
-        recentUsers: users.slice(-5).reverse(),
-        recentCompanies: companies.slice(-5).reverse()
+        totalUsers: dashboardStats.totalUsers,
+        totalCompanies: dashboardStats.totalCompanies,
+        recentUsers: dashboardStats.recentUsers,
+        recentCompanies: dashboardStats.recentCompanies
       });
     } catch (err) {
       setError(err.message);
@@ -29,9 +29,10 @@ const UserDetail = () => {
   const fetchUserAndCompanies = async () => {
     try {
       setLoading(true);
-      const [userData, allCompanies] = await Promise.all([
+      const [userData, userCompanies, companiesPage] = await Promise.all([
         userAPI.getUserById(authUser.access_token, id),
-        companyAPI.getAllCompanies(authUser.access_token)
+        companyAPI.getCompaniesByUser(authUser.access_token, id),
+        companyAPI.getAllCompanies(authUser.access_token, null, 100)
       ]);
       
       setUser(userData);
@@ -42,14 +43,10 @@ const UserDetail = () => {
         lastName: userData.lastName || ''
       });
 
-      // Get user's companies
-      const userCompanies = allCompanies.filter(c => 
-        userData.companyIds?.includes(c.id)
-      );
       setCompanies(userCompanies);
 
-      // Get available companies (not assigned to user)
-      const available = allCompanies.filter(c => 
+      // Get available companies (not assigned to user) from the first page
+      const available = companiesPage.items.filter(c => 
         !userData.companyIds?.includes(c.id)
       );
       setAvailableCompanies(available);
@@ -10,12 +10,26 @@ const UsersList = () => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
 
   const fetchUsers = async () => {
     try {
       setLoading(true);
-      const data = await userAPI.getAllUsers(user.access_token);
-      setUsers(data);
+      const page = await userAPI.getAllUsers(user.access_token);
+      setUsers(page.items);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError(err.message);
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  const loadMoreUsers = async () => {
+    try {
+      const page = await userAPI.getAllUsers(user.access_token, nextCursor);
+      setUsers([...users, ...page.items]);
+      setNextCursor(page.nextCursor);
     } catch (err) {
       setError(err.message);
     } finally {
@@ -154,6 +168,13 @@ const UsersList = () => {
               </tbody>
             </table>
           </div>
+          {nextCursor != null && (
+            <div className="text-center mt-3">
+              <button className="btn btn-outline-primary" onClick={loadMoreUsers}>
+                Load More
+              </button>
+            </div>
+          )}
         </div>
       </div>
 
@@ -162,7 +183,7 @@ const UsersList = () => {
         <div className="col-md-4">
           <div className="card text-center">
             <div className="card-body">
-              <h5 className="card-title">Total Users</h5>
+              <h5 className="card-title">Loaded Users</h5>
               <p className="display-6">{users.length}</p>
             </div>
           </div>
@@ -16,23 +16,45 @@ const handleResponse = async (response) => {
   return response.json();
 };
 
+// Last ETag and body per URL. Responses are sent with Cache-Control: no-store,
+// so the browser never revalidates them; we send If-None-Match ourselves.
+const MAX_CONDITIONAL_ENTRIES = 200;
+const conditionalCache = new Map();
+
+// GET that reuses the previous body when the server answers 304 Not Modified
+const conditionalGet = async (url, token) => {
+  const cached = conditionalCache.get(url);
+  const headers = getHeaders(token);
+  if (cached) headers['If-None-Match'] = cached.etag;
+  const response = await fetch(url, { headers });
+  if (response.status === 304 && cached) {
+    return cached.data;
+  }
+  const data = await handleResponse(response);
+  const etag = response.headers.get('ETag');
+  if (etag) {
+    conditionalCache.delete(url);
+    conditionalCache.set(url, { etag, data });
+    if (conditionalCache.size > MAX_CONDITIONAL_ENTRIES) {
+      conditionalCache.delete(conditionalCache.keys().next().value);
+    }
+  }
+  return data;
+};
+
 // ==================== USER APIs ====================
 
 export const userAPI = {
-  // Get all users
-  getAllUsers: async (token) => {
-    const response = await fetch(`${RESOURCE_SERVER_URL}/users`, {
-      headers: getHeaders(token),
-    });
-    return handleResponse(response);
+  // Get a page of users; pass the previous page's nextCursor as `after`
+  getAllUsers: async (token, after = null, limit = 50) => {
+    const params = new URLSearchParams({ limit });
+    if (after != null) params.set('after', after);
+    return conditionalGet(`${RESOURCE_SERVER_URL}/users?${params}`, token);
   },
 
   // Get user by ID
   getUserById: async (token, userId) => {
-    const response = await fetch(`${RESOURCE_SERVER_URL}/users/${userId}`, {
-      headers: getHeaders(token),
-    });
-    return handleResponse(response);
+    return conditionalGet(`${RESOURCE_SERVER_URL}/users/${userId}`, token);
   },
 
   // Get user by username
@@ -92,10 +114,7 @@ export const userAPI = {
 
   // Get users by company
   getUsersByCompany: async (token, companyId) => {
-    const response = await fetch(`${RESOURCE_SERVER_URL}/users/company/${companyId}`, {
-      headers: getHeaders(token),
-    });
-    return handleResponse(response);
+    return conditionalGet(`${RESOURCE_SERVER_URL}/users/company/${companyId}`, token);
   },
 
   // Sync current user
@@ -120,20 +139,16 @@ export const userAPI = {
 // ==================== COMPANY APIs ====================
 
 export const companyAPI = {
-  // Get all companies
-  getAllCompanies: async (token) => {
-    const response = await fetch(`${RESOURCE_SERVER_URL}/companies`, {
-      headers: getHeaders(token),
-    });
-    return handleResponse(response);
+  // Get a page of companies; pass the previous page's nextCursor as `after`
+  getAllCompanies: async (token, after = null, limit = 50) => {
+    const params = new URLSearchParams({ limit });
+    if (after != null) params.set('after', after);
+    return conditionalGet(`${RESOURCE_SERVER_URL}/companies?${params}`, token);
   },
 
   // Get company by ID
   getCompanyById: async (token, companyId) => {
-    const response = await fetch(`${RESOURCE_SERVER_URL}/companies/${companyId}`, {
-      headers: getHeaders(token),
-    });
-    return handleResponse(response);
+    return conditionalGet(`${RESOURCE_SERVER_URL}/companies/${companyId}`, token);
   },
 
   // Get company by name
@@ -152,6 +167,29 @@ export const companyAPI = {
     return handleResponse(response);
   },
 
+  // Facet counts by industry and company size, each filtered by the other (null = any)
+  getCompanyFacets: async (token, industry = null, companySize = null) => {
+    const params = new URLSearchParams();
+    if (industry != null) params.set('industry', industry);
+    if (companySize != null) params.set('companySize', companySize);
+    const response = await fetch(`${RESOURCE_SERVER_URL}/companies/facets?${params}`, {
+      headers: getHeaders(token),
+    });
+    return handleResponse(response);
+  },
+
+  // Page through companies filtered by industry and/or company size; pass nextCursor as after
+  browseCompanies: async (token, industry = null, companySize = null, after = null, limit = 50) => {
+    const params = new URLSearchParams({ limit });
+    if (industry != null) params.set('industry', industry);
+    if (companySize != null) params.set('companySize', companySize);
+    if (after != null) params.set('after', after);
+    const response = await fetch(`${RESOURCE_SERVER_URL}/companies/browse?${params}`, {
+      headers: getHeaders(token),
+    });
+    return handleResponse(response);
+  },
+
   // Create company
   createCompany: async (token, companyData) => {
     const response = await fetch(`${RESOURCE_SERVER_URL}/companies`, {
@@ -190,6 +228,16 @@ export const companyAPI = {
     return handleResponse(response);
   },
 
+  // Add many users to company
+  addUsersToCompany: async (token, companyId, userIds) => {
+    const response = await fetch(`${RESOURCE_SERVER_URL}/companies/${companyId}/users`, {
+      method: 'POST',
+      headers: getHeaders(token),
+      body: JSON.stringify({ userIds }),
+    });
+    return handleResponse(response);
+  },
+
   // Remove user from company
   removeUserFromCompany: async (token, companyId, userId) => {
     const response = await fetch(`${RESOURCE_SERVER_URL}/companies/${companyId}/users/${userId}`, {
@@ -201,7 +249,62 @@ export const companyAPI = {
 
   // Get companies by user
   getCompaniesByUser: async (token, userId) => {
-    const response = await fetch(`${RESOURCE_SERVER_URL}/companies/user/${userId}`, {
+    return conditionalGet(`${RESOURCE_SERVER_URL}/companies/user/${userId}`, token);
+  },
+};
+
+// ==================== SEARCH APIs ====================
+
+export const searchAPI = {
+  // Search users and companies by name, email, industry or address prefixes
+  search: async (token, q, type = 'all', offset = 0, limit = 20) => {
+    const params = new URLSearchParams({ q, type, offset, limit });
+    const response = await fetch(`${RESOURCE_SERVER_URL}/search?${params}`, {
+      headers: getHeaders(token),
+    });
+    return handleResponse(response);
+  },
+};
+
+// ==================== MEMBERSHIP APIs ====================
+
+export const membershipAPI = {
+  // User ids in all (match = 'all') or any (match = 'any') of the given companies
+  findUsers: async (token, companyIds, match = 'all', after = null, limit = 100) => {
+    const params = new URLSearchParams({ companyIds: companyIds.join(','), match, limit });
+    if (after != null) params.set('after', after);
+    const response = await fetch(`${RESOURCE_SERVER_URL}/memberships/users?${params}`, {
+      headers: getHeaders(token),
+    });
+    return handleResponse(response);
+  },
+
+  // Company ids shared by all (match = 'all') or held by any (match = 'any') of the given users
+  findCompanies: async (token, userIds, match = 'all', after = null, limit = 100) => {
+    const params = new URLSearchParams({ userIds: userIds.join(','), match, limit });
+    if (after != null) params.set('after', after);
+    const response = await fetch(`${RESOURCE_SERVER_URL}/memberships/companies?${params}`, {
+      headers: getHeaders(token),
+    });
+    return handleResponse(response);
+  },
+
+  // Member count of each given company, keyed by company id
+  countMembers: async (token, companyIds) => {
+    const params = new URLSearchParams({ companyIds: companyIds.join(',') });
+    const response = await fetch(`${RESOURCE_SERVER_URL}/memberships/counts?${params}`, {
+      headers: getHeaders(token),
+    });
+    return handleResponse(response);
+  },
+};
+
+// ==================== STATS APIs ====================
+
+export const statsAPI = {
+  // Get dashboard counts and the most recent users and companies
+  getStats: async (token, recent = 5) => {
+    const response = await fetch(`${RESOURCE_SERVER_URL}/stats?recent=${recent}`, {
       headers: getHeaders(token),
     });
     return handleResponse(response);
@@ -0,0 +1,106 @@
+package com.server.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// Latency histogram and response status counts per endpoint label, recorded from many threads.
+// Nothing is kept until start(); stop() freezes what was recorded for the report.
+final class EndpointStats {
+
+    // Status recorded when no response arrived (connect failure, timeout)
+    static final int NO_RESPONSE = 0;
+
+    // Never started, for requests that should not show up in any report
+    static final EndpointStats DISABLED = new EndpointStats();
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+    private long startedAt;
+    private long stoppedAt;
+
+    void start() {
+        endpoints.values().forEach(Endpoint::reset);
+        startedAt = System.nanoTime();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+        stoppedAt = System.nanoTime();
+    }
+
+    void record(String label, long latencyNanos, int status) {
+        if (!recording) {
+            return;
+        }
+        Endpoint endpoint = endpoints.computeIfAbsent(label, key -> new Endpoint());
+        endpoint.latency.recordValue(Math.max(1, latencyNanos));
+        endpoint.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    // Throughput and percentiles per endpoint, plus one .hgrm percentile distribution file each
+    void report(String phase, PrintStream out, Path resultsDirectory) throws IOException {
+        double seconds = (stoppedAt - startedAt) / 1e9;
+        out.printf("%n== %s phase: %.1f s recorded%n", phase, seconds);
+        out.printf("%-44s %9s %10s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+
+        Path histograms = resultsDirectory.resolve(phase);
+        Files.createDirectories(histograms);
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram histogram = entry.getValue().latency.getIntervalHistogram();
+            out.printf("%-44s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    statuses(entry.getValue()));
+
+            Path file = histograms.resolve(entry.getKey().replaceAll("[^A-Za-z0-9._-]+", "_") + ".hgrm");
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(hgrm, NANOS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+    private static String statuses(Endpoint endpoint) {
+        StringBuilder text = new StringBuilder();
+        new TreeMap<>(endpoint.statuses).forEach((status, count) -> {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(status == NO_RESPONSE ? "none" : status).append('=').append(count.sum());
+        });
+        return text.toString();
+    }
+
+    private static final class Endpoint {
+        // Auto-resizing, 3 significant digits
+        private final Recorder latency = new Recorder(3);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        private void reset() {
+            latency.reset();
+            statuses.clear();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.server.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// HTTP/1.1 client shared by all simulated clients. Redirects are never followed and cookies are
+// not stored, so each OAuth2 flow handles its own session; responses are read as strings.
+final class LoadClient {
+
+    static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient http;
+    private final URI authorizationServer;
+    private final URI resourceServer;
+    private final Duration requestTimeout;
+
+    LoadClient(URI authorizationServer, URI resourceServer, Duration requestTimeout) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.authorizationServer = authorizationServer;
+        this.resourceServer = resourceServer;
+        this.requestTimeout = requestTimeout;
+    }
+
+    URI authorizationServer(String path) {
+        return authorizationServer.resolve(path);
+    }
+
+    HttpRequest.Builder request(URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(requestTimeout);
+    }
+
+    HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Sends a request and records it under the label, whether or not a response arrives
+    HttpResponse<String> send(String label, HttpRequest request, EndpointStats stats)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = send(request);
+            stats.record(label, System.nanoTime() - start, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            stats.record(label, System.nanoTime() - start, EndpointStats.NO_RESPONSE);
+            throw e;
+        }
+    }
+
+    // A ResourceServer call with the access token; body, if any, is sent as JSON
+    HttpResponse<String> api(String method, String path, String accessToken, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body));
+        HttpRequest.Builder request = request(resourceServer.resolve(path))
+                .header("Authorization", "Bearer " + accessToken)
+                .method(method, publisher);
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        return send(request.build());
+    }
+
+    static HttpRequest.BodyPublisher form(Map<String, String> fields) {
+        return HttpRequest.BodyPublishers.ofString(fields.entrySet().stream()
+                .map(field -> encode(field.getKey()) + "=" + encode(field.getValue()))
+                .collect(Collectors.joining("&")));
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    static JsonNode json(HttpResponse<String> response) throws IOException {
+        return JSON.readTree(response.body());
+    }
+}
@@ -0,0 +1,243 @@
+package com.server.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.server.loadtest.LoadTestOptions.Credentials;
+import com.server.loadtest.OAuthClient.TokenResult;
+import com.server.loadtest.Operation.Session;
+import com.server.loadtest.Operation.TargetIds;
+
+/**
+ * Starts the AuthorizationServer and the ResourceServer on free loopback ports, seeds users and
+ * companies, then runs each phase: unrecorded warmup, then the recorded duration. The tokens
+ * phase issues tokens through the {@code client} client-credentials registration and the
+ * {@code react-client} PKCE flow; the api phase sends a weighted mix of reads and writes with
+ * user access tokens. For every endpoint it prints throughput and HdrHistogram percentiles and
+ * writes the full distribution to a {@code .hgrm} file.
+ *
+ * <pre>
+ * mvn -B package -DskipTests
+ * java -jar loadtest/target/loadtest.jar --connections=64 --duration=PT60S
+ * </pre>
+ *
+ * <p>With {@code --rate}, clients send on a fixed schedule and latency is measured from when each
+ * request was due, so a stalled server shows up in the percentiles instead of silently lowering
+ * the offered load. Nothing leaves the machine: both servers bind to 127.0.0.1 and the
+ * ResourceServer fetches its keys from the local AuthorizationServer.
+ */
+public final class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final LoadTestOptions options;
+    private final PrintStream out = System.out;
+
+    private LoadTest(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        Path results = options.resultsDirectory();
+        Files.createDirectories(results);
+        Path databases = results.resolve("db");
+        deleteRecursively(databases);
+
+        out.println("Starting servers, logs in " + results.toAbsolutePath());
+        try (ServerProcess authorizationServer = ServerProcess.start("AuthorizationServer",
+                options.authorizationServerJar(), options.serverJvmArgs(),
+                authorizationServerArgs(databases), results.resolve("authorization-server.log"))) {
+            authorizationServer.awaitReady("/.well-known/openid-configuration", STARTUP_TIMEOUT);
+
+            try (ServerProcess resourceServer = ServerProcess.start("ResourceServer",
+                    options.resourceServerJar(), options.serverJvmArgs(),
+                    resourceServerArgs(databases, authorizationServer.baseUri()),
+                    results.resolve("resource-server.log"))) {
+                resourceServer.awaitReady("/actuator/health", STARTUP_TIMEOUT);
+                out.println("AuthorizationServer at " + authorizationServer.baseUri()
+                        + ", ResourceServer at " + resourceServer.baseUri());
+
+                LoadClient client = new LoadClient(authorizationServer.baseUri(), resourceServer.baseUri(),
+                        options.requestTimeout());
+                OAuthClient oauth = new OAuthClient(client, options.redirectUri());
+                TargetIds ids = new TargetIds();
+                seed(client, oauth, ids);
+
+                for (String phase : options.phases()) {
+                    Mix mix = phase.equals("tokens") ? options.tokenMix() : options.apiMix();
+                    runPhase(phase, mix, client, oauth, ids);
+                }
+            }
+        }
+    }
+
+    private List<String> authorizationServerArgs(Path databases) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=" + databaseUrl(databases, "authdb"));
+        args.add("--spring.jpa.show-sql=false");
+        args.add("--spring.h2.console.enabled=false");
+        args.add("--react.redirect.uri=" + options.redirectUri());
+        args.addAll(options.authorizationServerArgs());
+        return args;
+    }
+
+    private List<String> resourceServerArgs(Path databases, URI authorizationServer) {
+        String jwks = authorizationServer.resolve("/oauth2/jwks").toString();
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=" + databaseUrl(databases, "resourcedb"));
+        args.add("--spring.h2.console.enabled=false");
+        args.add("--keySetURI=" + jwks);
+        args.add("--introspectionUri=" + authorizationServer.resolve("/oauth2/introspect"));
+        args.add("--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + jwks);
+        // Hibernate statistics stay on for the cache metrics, but not its per-session log lines
+        args.add("--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN");
+        args.addAll(options.resourceServerArgs());
+        return args;
+    }
+
+    private String databaseUrl(Path databases, String name) {
+        return options.database().equals("file")
+                ? "jdbc:h2:file:" + databases.resolve(name).toAbsolutePath()
+                : "jdbc:h2:mem:" + name;
+    }
+
+    // Users and companies for the reads to find, created with one user token outside any phase
+    private void seed(LoadClient client, OAuthClient oauth, TargetIds ids) throws IOException, InterruptedException {
+        String token = userToken(oauth, options.users().get(0));
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < options.seedUsers(); i++) {
+            ids.createUser(client, token);
+        }
+        for (int i = 0; i < options.seedCompanies(); i++) {
+            ids.createCompany(client, token, random);
+        }
+        out.printf("Seeded %d users and %d companies%n", options.seedUsers(), options.seedCompanies());
+    }
+
+    private void runPhase(String phase, Mix mix, LoadClient client, OAuthClient oauth, TargetIds ids)
+            throws Exception {
+        EndpointStats stats = new EndpointStats();
+        AtomicLong logins = new AtomicLong();
+
+        // Each api client holds its own user token, as each browser would; obtaining them is not measured
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < options.connections(); i++) {
+            String token = phase.equals("api")
+                    ? userToken(oauth, options.users().get(i % options.users().size()))
+                    : null;
+            sessions.add(new Session(client, oauth, stats, ids, options.users(), token,
+                    new SplittableRandom(31L * i + phase.hashCode()), logins));
+        }
+
+        // Per client, so the schedule across all of them adds up to the target rate
+        long intervalNanos = options.rate() > 0 ? (long) (options.connections() * 1e9 / options.rate()) : 0;
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        out.printf("%nRunning %s phase: %d clients, %s, warmup %s, duration %s%n", phase, options.connections(),
+                intervalNanos > 0 ? options.rate() + " ops/s" : "closed loop", options.warmup(), options.duration());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < sessions.size(); i++) {
+                Session session = sessions.get(i);
+                // Spread scheduled clients over one interval rather than firing them together
+                long firstDue = start + (intervalNanos * i) / sessions.size();
+                running.add(clients.submit(() -> {
+                    drive(session, mix, firstDue, intervalNanos, end);
+                    return null;
+                }));
+            }
+
+            sleepUntil(measureFrom);
+            stats.start();
+            sleepUntil(end);
+            stats.stop();
+            for (Future<?> finished : running) {
+                finished.get();
+            }
+        }
+        stats.report(phase, out, options.resultsDirectory());
+    }
+
+    private static void drive(Session session, Mix mix, long firstDue, long intervalNanos, long end)
+            throws InterruptedException {
+        long due = firstDue;
+        while (true) {
+            long start;
+            if (intervalNanos > 0) {
+                sleepUntil(due);
+                start = due;
+                due += intervalNanos;
+            } else {
+                start = System.nanoTime();
+            }
+            if (start >= end) {
+                return;
+            }
+
+            Operation operation = mix.pick(session.random());
+            int status;
+            try {
+                status = operation.run(session);
+            } catch (IOException e) {
+                status = EndpointStats.NO_RESPONSE;
+            }
+            session.stats().record(operation.label(), System.nanoTime() - start, status);
+        }
+    }
+
+    private String userToken(OAuthClient oauth, Credentials user) throws IOException, InterruptedException {
+        TokenResult result = oauth.pkce(user, EndpointStats.DISABLED);
+        if (!result.succeeded()) {
+            throw new IllegalStateException("PKCE login as " + user.username() + " failed with status "
+                    + result.status() + "; check --users and the AuthorizationServer log");
+        }
+        return result.accessToken();
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(Duration.ofNanos(remaining));
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
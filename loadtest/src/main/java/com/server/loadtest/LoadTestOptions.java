@@ -0,0 +1,156 @@
+package com.server.loadtest;
+
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Command line of the load test: --name=value pairs, everything optional.
+record LoadTestOptions(
+        Path authorizationServerJar,
+        Path resourceServerJar,
+        String database,
+        List<String> phases,
+        Mix tokenMix,
+        Mix apiMix,
+        int connections,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Duration requestTimeout,
+        int seedUsers,
+        int seedCompanies,
+        List<Credentials> users,
+        String redirectUri,
+        Path resultsDirectory,
+        List<String> serverJvmArgs,
+        List<String> authorizationServerArgs,
+        List<String> resourceServerArgs) {
+
+    static final String USAGE = """
+            java -jar loadtest.jar [--option=value ...]
+
+              --phases=tokens,api         phases to run, in order
+              --token-mix=...             token phase mix (default token.client-credentials:80,token.pkce:20)
+              --api-mix=...               api phase mix (default users.list:20,users.get:25,companies.list:20,
+                                          companies.get:25,users.create:4,companies.create:3,memberships.add:3)
+              --connections=32            concurrent simulated clients
+              --rate=0                    target operations per second across all clients; 0 runs closed loop,
+                                          each client sending its next request as soon as the last one returns
+              --warmup=PT10S              unrecorded load before each phase
+              --duration=PT30S            recorded load per phase
+              --request-timeout=PT10S
+              --database=mem              mem, or file for H2 databases under the results directory
+              --seed-users=200            users and companies created before the first phase
+              --seed-companies=200
+              --users=bill:password,admin:admin123
+                                          AuthorizationServer accounts the PKCE logins cycle through
+              --redirect-uri=http://localhost:5173/callback
+                                          react-client's registered redirect URI; never requested, only read back
+              --results=loadtest-results  server logs and per-endpoint .hgrm percentile files
+              --server-jvm-args=-Xmx1g    extra JVM options for both servers, space separated
+              --as-args=... --rs-args=... extra Spring Boot arguments per server, space separated
+              --as-jar=... --rs-jar=...   server executable jars (default: servers/ next to loadtest.jar)
+
+            Operations: token.client-credentials, token.pkce, users.list, users.get, companies.list,
+            companies.get, users.create, companies.create, memberships.add
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            values.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+
+        Path servers = defaultServersDirectory();
+        LoadTestOptions options = new LoadTestOptions(
+                Path.of(take(values, "as-jar", servers.resolve("AuthorizationServer-exec.jar").toString())),
+                Path.of(take(values, "rs-jar", servers.resolve("ResourceServer-exec.jar").toString())),
+                take(values, "database", "mem"),
+                List.of(take(values, "phases", "tokens,api").split(",")),
+                Mix.parse(take(values, "token-mix", "token.client-credentials:80,token.pkce:20")),
+                Mix.parse(take(values, "api-mix", "users.list:20,users.get:25,companies.list:20,companies.get:25,"
+                        + "users.create:4,companies.create:3,memberships.add:3")),
+                Integer.parseInt(take(values, "connections", "32")),
+                Double.parseDouble(take(values, "rate", "0")),
+                Duration.parse(take(values, "warmup", "PT10S")),
+                Duration.parse(take(values, "duration", "PT30S")),
+                Duration.parse(take(values, "request-timeout", "PT10S")),
+                Integer.parseInt(take(values, "seed-users", "200")),
+                Integer.parseInt(take(values, "seed-companies", "200")),
+                Credentials.parseAll(take(values, "users", "bill:password,admin:admin123")),
+                take(values, "redirect-uri", "http://localhost:5173/callback"),
+                Path.of(take(values, "results", "loadtest-results")),
+                words(take(values, "server-jvm-args", "")),
+                words(take(values, "as-args", "")),
+                words(take(values, "rs-args", "")));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        options.validate();
+        return options;
+    }
+
+    private void validate() {
+        if (!database.equals("mem") && !database.equals("file")) {
+            throw new IllegalArgumentException("--database must be mem or file");
+        }
+        if (connections < 1) {
+            throw new IllegalArgumentException("--connections must be at least 1");
+        }
+        for (String phase : phases) {
+            if (!phase.equals("tokens") && !phase.equals("api")) {
+                throw new IllegalArgumentException("Unknown phase: " + phase);
+            }
+        }
+        for (Path jar : List.of(authorizationServerJar, resourceServerJar)) {
+            if (!Files.isRegularFile(jar)) {
+                throw new IllegalArgumentException("Server jar not found: " + jar
+                        + " (build with mvn package from the repository root, or pass --as-jar/--rs-jar)");
+            }
+        }
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue) {
+        String value = values.remove(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static List<String> words(String value) {
+        return value.isBlank() ? List.of() : new ArrayList<>(Arrays.asList(value.trim().split("\\s+")));
+    }
+
+    // target/servers/, filled by the build; loadtest.jar (or target/classes) sits next to it
+    private static Path defaultServersDirectory() {
+        try {
+            Path location = Path.of(LoadTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return location.getParent().resolve("servers");
+        } catch (URISyntaxException e) {
+            return Path.of("servers");
+        }
+    }
+
+    record Credentials(String username, String password) {
+
+        static List<Credentials> parseAll(String value) {
+            List<Credentials> credentials = new ArrayList<>();
+            for (String pair : value.split(",")) {
+                int colon = pair.indexOf(':');
+                if (colon < 1) {
+                    throw new IllegalArgumentException("Expected username:password but got: " + pair);
+                }
+                credentials.add(new Credentials(pair.substring(0, colon), pair.substring(colon + 1)));
+            }
+            return credentials;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.server.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Weighted choice of operations, parsed from "name:weight,name:weight"
+final class Mix {
+
+    private final List<Operation> operations;
+    private final int[] cumulativeWeights;
+
+    private Mix(List<Operation> operations, int[] cumulativeWeights) {
+        this.operations = operations;
+        this.cumulativeWeights = cumulativeWeights;
+    }
+
+    static Mix parse(String spec) {
+        List<Operation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + parts[0]);
+            }
+            if (weight > 0) {
+                operations.add(Operation.named(parts[0]));
+                weights.add(weight);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations: " + spec);
+        }
+
+        int[] cumulative = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+        return new Mix(List.copyOf(operations), cumulative);
+    }
+
+    Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
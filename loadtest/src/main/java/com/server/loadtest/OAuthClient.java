@@ -0,0 +1,177 @@
+package com.server.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.server.loadtest.LoadTestOptions.Credentials;
+
+// Token issuance the way the real clients do it, every step recorded under its own label:
+// the confidential "client" with client credentials, and the public "react-client" through
+// authorization code with PKCE, logging in on the AuthorizationServer's form like a browser.
+final class OAuthClient {
+
+    static final String CLIENT_CREDENTIALS = "POST /oauth2/token (client_credentials)";
+    static final String AUTHORIZE = "GET /oauth2/authorize";
+    static final String LOGIN_PAGE = "GET /login";
+    static final String LOGIN = "POST /login";
+    static final String AUTHORIZE_AFTER_LOGIN = "GET /oauth2/authorize (logged in)";
+    static final String CODE_EXCHANGE = "POST /oauth2/token (authorization_code)";
+
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"[^>]*value=\"([^\"]+)\"");
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final LoadClient client;
+    private final String redirectUri;
+
+    OAuthClient(LoadClient client, String redirectUri) {
+        this.client = client;
+        this.redirectUri = redirectUri;
+    }
+
+    // Access token, or empty with the failing status
+    record TokenResult(int status, String accessToken) {
+
+        boolean succeeded() {
+            return accessToken != null;
+        }
+    }
+
+    TokenResult clientCredentials(EndpointStats stats) throws IOException, InterruptedException {
+        String basic = Base64.getEncoder().encodeToString("client:secret".getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = client.request(client.authorizationServer("/oauth2/token"))
+                .header("Authorization", "Basic " + basic)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(LoadClient.form(Map.of("grant_type", "client_credentials", "scope", "openid")))
+                .build();
+        return token(client.send(CLIENT_CREDENTIALS, request, stats));
+    }
+
+    // A fresh browser session each time: authorize, get bounced to the login form, post it,
+    // follow the saved request back to authorize, then redeem the code with the verifier
+    TokenResult pkce(Credentials user, EndpointStats stats) throws IOException, InterruptedException {
+        String verifier = randomUrlSafe(32);
+        String state = randomUrlSafe(16);
+        URI authorize = client.authorizationServer("/oauth2/authorize?response_type=code&client_id=react-client"
+                + "&scope=" + LoadClient.encode("openid read")
+                + "&redirect_uri=" + LoadClient.encode(redirectUri)
+                + "&state=" + state
+                + "&code_challenge=" + challenge(verifier)
+                + "&code_challenge_method=S256");
+
+        HttpResponse<String> response = client.send(AUTHORIZE, client.request(authorize).GET().build(), stats);
+        if (response.statusCode() != 302) {
+            return new TokenResult(response.statusCode(), null);
+        }
+        String session = sessionCookie(response.headers()).orElse(null);
+
+        URI loginPage = location(response);
+        response = client.send(LOGIN_PAGE, withSession(client.request(loginPage), session).GET().build(), stats);
+        Matcher csrf = CSRF_INPUT.matcher(response.body());
+        if (response.statusCode() != 200 || !csrf.find()) {
+            return new TokenResult(response.statusCode(), null);
+        }
+        session = sessionCookie(response.headers()).orElse(session);
+
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("username", user.username());
+        form.put("password", user.password());
+        form.put("_csrf", csrf.group(1));
+        response = client.send(LOGIN, withSession(client.request(loginPage), session)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(LoadClient.form(form))
+                .build(), stats);
+        // Anything but a redirect back to the saved authorize request means the login failed
+        if (response.statusCode() != 302 || location(response).getPath().equals("/login")) {
+            return new TokenResult(response.statusCode() == 302 ? 401 : response.statusCode(), null);
+        }
+        // The session id changes on login
+        session = sessionCookie(response.headers()).orElse(session);
+
+        response = client.send(AUTHORIZE_AFTER_LOGIN,
+                withSession(client.request(location(response)), session).GET().build(), stats);
+        Optional<String> code = response.statusCode() == 302
+                ? queryParameter(location(response), "code")
+                : Optional.empty();
+        if (code.isEmpty()) {
+            return new TokenResult(response.statusCode(), null);
+        }
+
+        Map<String, String> exchange = new LinkedHashMap<>();
+        exchange.put("grant_type", "authorization_code");
+        exchange.put("code", code.get());
+        exchange.put("redirect_uri", redirectUri);
+        exchange.put("client_id", "react-client");
+        exchange.put("code_verifier", verifier);
+        HttpRequest request = client.request(client.authorizationServer("/oauth2/token"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(LoadClient.form(exchange))
+                .build();
+        return token(client.send(CODE_EXCHANGE, request, stats));
+    }
+
+    private static TokenResult token(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            return new TokenResult(response.statusCode(), null);
+        }
+        return new TokenResult(200, LoadClient.json(response).path("access_token").asText(null));
+    }
+
+    private static HttpRequest.Builder withSession(HttpRequest.Builder request, String session) {
+        return session == null ? request : request.header("Cookie", session);
+    }
+
+    // "JSESSIONID=..." from Set-Cookie, without its attributes
+    private static Optional<String> sessionCookie(HttpHeaders headers) {
+        return headers.allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("JSESSIONID="))
+                .map(cookie -> cookie.split(";", 2)[0])
+                .findFirst();
+    }
+
+    private static URI location(HttpResponse<String> response) {
+        String location = response.headers().firstValue("Location")
+                .orElseThrow(() -> new IllegalStateException("Redirect without Location from " + response.uri()));
+        return response.uri().resolve(location);
+    }
+
+    private static Optional<String> queryParameter(URI uri, String name) {
+        if (uri.getRawQuery() == null) {
+            return Optional.empty();
+        }
+        for (String pair : uri.getRawQuery().split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return Optional.of(URLDecoder.decode(pair.substring(name.length() + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String randomUrlSafe(int bytes) {
+        byte[] random = new byte[bytes];
+        RANDOM.nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+
+    private static String challenge(String verifier) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(verifier.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
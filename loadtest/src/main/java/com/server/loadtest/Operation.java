@@ -0,0 +1,164 @@
+package com.server.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.server.loadtest.LoadTestOptions.Credentials;
+
+// What a simulated client can do in one step. Each returns the HTTP status that decided the
+// outcome; the caller records it with the step's latency under the operation's label.
+enum Operation {
+
+    CLIENT_CREDENTIALS("token.client-credentials", OAuthClient.CLIENT_CREDENTIALS) {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            // Its single request is recorded here as the operation, not again as a step
+            return session.oauth().clientCredentials(EndpointStats.DISABLED).status();
+        }
+    },
+    PKCE("token.pkce", "react-client PKCE login (all steps)") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.oauth().pkce(session.nextUser(), session.stats()).status();
+        }
+    },
+    LIST_USERS("users.list", "GET /api/users") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.api("GET", "/api/users?limit=50", null).statusCode();
+        }
+    },
+    GET_USER("users.get", "GET /api/users/{id}") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.api("GET", "/api/users/" + session.ids().randomUser(session.random()), null).statusCode();
+        }
+    },
+    LIST_COMPANIES("companies.list", "GET /api/companies") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.api("GET", "/api/companies?limit=50", null).statusCode();
+        }
+    },
+    GET_COMPANY("companies.get", "GET /api/companies/{id}") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.api("GET", "/api/companies/" + session.ids().randomCompany(session.random()), null)
+                    .statusCode();
+        }
+    },
+    CREATE_USER("users.create", "POST /api/users") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.ids().createUser(session.client(), session.accessToken()).statusCode();
+        }
+    },
+    CREATE_COMPANY("companies.create", "POST /api/companies") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            return session.ids().createCompany(session.client(), session.accessToken(), session.random())
+                    .statusCode();
+        }
+    },
+    ADD_MEMBERSHIP("memberships.add", "POST /api/users/{id}/companies/{id}") {
+        @Override
+        int run(Session session) throws IOException, InterruptedException {
+            SplittableRandom random = session.random();
+            return session.api("POST", "/api/users/" + session.ids().randomUser(random)
+                    + "/companies/" + session.ids().randomCompany(random), null).statusCode();
+        }
+    };
+
+    private final String name;
+    private final String label;
+
+    Operation(String name, String label) {
+        this.name = name;
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    abstract int run(Session session) throws IOException, InterruptedException;
+
+    static Operation named(String name) {
+        for (Operation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+
+    // One simulated client: its token, random stream and place in the credential rotation
+    record Session(LoadClient client, OAuthClient oauth, EndpointStats stats, TargetIds ids,
+            List<Credentials> users, String accessToken, SplittableRandom random, AtomicLong logins) {
+
+        HttpResponse<String> api(String method, String path, Object body) throws IOException, InterruptedException {
+            return client.api(method, path, accessToken, body);
+        }
+
+        Credentials nextUser() {
+            return users.get((int) (logins.getAndIncrement() % users.size()));
+        }
+    }
+
+    // Ids of the users and companies in the ResourceServer. Both tables use identity ids and the
+    // load test never deletes, so every id up to the highest one created so far exists.
+    static final class TargetIds {
+
+        private static final List<String> INDUSTRIES = List.of(
+                "Technology", "Finance", "Healthcare", "Retail", "Manufacturing", "Education");
+        private static final List<String> COMPANY_SIZES = List.of("1-10", "11-50", "51-200", "201-1000", "1000+");
+
+        private final AtomicLong highestUserId = new AtomicLong();
+        private final AtomicLong highestCompanyId = new AtomicLong();
+        private final AtomicLong sequence = new AtomicLong();
+        private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        long randomUser(SplittableRandom random) {
+            return 1 + random.nextLong(Math.max(1, highestUserId.get()));
+        }
+
+        long randomCompany(SplittableRandom random) {
+            return 1 + random.nextLong(Math.max(1, highestCompanyId.get()));
+        }
+
+        HttpResponse<String> createUser(LoadClient client, String accessToken)
+                throws IOException, InterruptedException {
+            String username = "lt-" + runId + "-" + sequence.incrementAndGet();
+            HttpResponse<String> response = client.api("POST", "/api/users", accessToken, Map.of(
+                    "username", username,
+                    "email", username + "@example.com",
+                    "firstName", "Load",
+                    "lastName", "Test"));
+            created(response, highestUserId);
+            return response;
+        }
+
+        HttpResponse<String> createCompany(LoadClient client, String accessToken, SplittableRandom random)
+                throws IOException, InterruptedException {
+            String name = "Load Test " + runId + " " + sequence.incrementAndGet();
+            HttpResponse<String> response = client.api("POST", "/api/companies", accessToken, Map.of(
+                    "name", name,
+                    "address", random.nextInt(1, 1000) + " Main Street",
+                    "industry", INDUSTRIES.get(random.nextInt(INDUSTRIES.size())),
+                    "companySize", COMPANY_SIZES.get(random.nextInt(COMPANY_SIZES.size()))));
+            created(response, highestCompanyId);
+            return response;
+        }
+
+        private static void created(HttpResponse<String> response, AtomicLong highestId) throws IOException {
+            if (response.statusCode() == 201) {
+                long id = LoadClient.json(response).path("id").asLong();
+                highestId.accumulateAndGet(id, Math::max);
+            }
+        }
+    }
+}
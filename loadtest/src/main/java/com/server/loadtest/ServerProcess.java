@@ -0,0 +1,88 @@
+package com.server.loadtest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// One of the Spring Boot apps, run from its executable jar in a child JVM bound to loopback.
+// Separate processes keep the two apps' application.properties, ports and heaps apart, as on
+// real nodes. Output goes to a log file; close() stops the process.
+final class ServerProcess implements AutoCloseable {
+
+    private final String name;
+    private final Process process;
+    private final Path log;
+    private final URI baseUri;
+
+    private ServerProcess(String name, Process process, Path log, URI baseUri) {
+        this.name = name;
+        this.process = process;
+        this.log = log;
+        this.baseUri = baseUri;
+    }
+
+    static ServerProcess start(String name, Path jar, List<String> jvmArgs, List<String> appArgs, Path log)
+            throws IOException {
+        int port = freeLoopbackPort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.address=127.0.0.1");
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new ServerProcess(name, process, log, URI.create("http://127.0.0.1:" + port));
+    }
+
+    URI baseUri() {
+        return baseUri;
+    }
+
+    // Up once the port answers HTTP at all; a 401 from a protected path counts
+    void awaitReady(String probePath, Duration timeout) throws IOException, InterruptedException {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest probe = HttpRequest.newBuilder(baseUri.resolve(probePath)).timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(name + " exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                http.send(probe, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException notYet) {
+                Thread.sleep(250);
+            }
+        }
+        throw new IllegalStateException(name + " did not start within " + timeout + ", see " + log);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(15, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static int freeLoopbackPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+}
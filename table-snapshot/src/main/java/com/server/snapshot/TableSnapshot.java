@@ -0,0 +1,350 @@
+package com.server.snapshot;
+
+import org.springframework.jdbc.core.InterruptibleBatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// Whole tables in a compact binary file, and their reload through a memory-mapped read.
+//
+// Layout, big-endian: magic "TSNP", format version, table count, then per table its name and
+// its columns (name, type code), followed by its rows. Each row is a ROW marker byte, a null
+// bitmap of one bit per column and the non-null values: BIGINT as 8 bytes, INTEGER 4, BOOLEAN 1,
+// TIMESTAMP as 8 bytes of microseconds since the epoch (UTC wall clock), strings as a 4-byte
+// length and UTF-8. An END byte closes the table. The file ends with the CRC32 of everything
+// before it, checked before anything is loaded.
+public final class TableSnapshot {
+    
+    private static final int MAGIC = 0x54534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final byte ROW = 1;
+    private static final byte END = 0;
+    
+    private TableSnapshot() {
+    }
+    
+    // Write the tables, in order, to a temporary file that replaces the target once complete.
+    // Call within one transaction so all tables come from the same point in time.
+    public static Map<String, Long> write(JdbcTemplate jdbcTemplate, List<String> tables, Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Map<String, Long> rows = new LinkedHashMap<>();
+        
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(raw, crc), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(tables.size());
+            for (String table : tables) {
+                rows.put(table, jdbcTemplate.query("SELECT * FROM " + table, rs -> {
+                    try {
+                        return writeTable(table, rs, out);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            out.flush();
+            // Not part of its own checksum
+            raw.write(ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).array());
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(temporary);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+    
+    // Insert every table of the file, in file order, as JDBC batches of batchSize rows with one
+    // transaction each. Rows are decoded straight from the mapped file into the statement.
+    public static Map<String, Long> load(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                         Path file, int batchSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is larger than a single 2 GB mapping");
+            }
+            if (size < 4 * Integer.BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            
+            int end = (int) size - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, end));
+            if ((int) crc.getValue() != buffer.getInt(end)) {
+                throw new IOException("Snapshot " + file + " is corrupt (checksum mismatch)");
+            }
+            ByteBuffer data = buffer.slice(0, end);
+            if (data.getInt() != MAGIC || data.getInt() != FORMAT_VERSION) {
+                throw new IOException("Snapshot " + file + " is not in snapshot format " + FORMAT_VERSION);
+            }
+            
+            Map<String, Long> rows = new LinkedHashMap<>();
+            int tableCount = data.getInt();
+            for (int t = 0; t < tableCount; t++) {
+                String table = readString(data);
+                List<Column> columns = readColumns(data);
+                rows.put(table, loadRows(jdbcTemplate, transactionTemplate, table, columns, data, batchSize));
+            }
+            return rows;
+        }
+    }
+    
+    private static long writeTable(String table, ResultSet rs, DataOutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<Column> columns = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(new Column(metaData.getColumnName(i), ColumnType.of(table, metaData.getColumnName(i), metaData.getColumnType(i))));
+        }
+        writeString(out, table);
+        out.writeInt(columns.size());
+        for (Column column : columns) {
+            writeString(out, column.name());
+            out.writeByte(column.type().ordinal());
+        }
+        
+        byte[] nulls = new byte[(columns.size() + 7) / 8];
+        Object[] values = new Object[columns.size()];
+        long count = 0;
+        while (rs.next()) {
+            Arrays.fill(nulls, (byte) 0);
+            for (int i = 0; i < columns.size(); i++) {
+                values[i] = columns.get(i).type().read(rs, i + 1);
+                if (values[i] == null) {
+                    nulls[i / 8] |= (byte) (1 << (i % 8));
+                }
+            }
+            out.writeByte(ROW);
+            out.write(nulls);
+            for (int i = 0; i < columns.size(); i++) {
+                if (values[i] != null) {
+                    columns.get(i).type().write(out, values[i]);
+                }
+            }
+            count++;
+        }
+        out.writeByte(END);
+        return count;
+    }
+    
+    private static long loadRows(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, String table,
+                                 List<Column> columns, ByteBuffer data, int batchSize) {
+        String sql = "INSERT INTO " + table + " (" +
+            String.join(", ", columns.stream().map(Column::name).toList()) + ") VALUES (" +
+            String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+        byte[] nulls = new byte[(columns.size() + 7) / 8];
+        long[] loaded = {0};
+        
+        while (data.get(data.position()) == ROW) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, new InterruptibleBatchPreparedStatementSetter() {
+                private boolean exhausted;
+                
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    if (data.get() != ROW) {
+                        // Put the END marker back for the loop above
+                        data.position(data.position() - 1);
+                        exhausted = true;
+                        return;
+                    }
+                    data.get(nulls);
+                    for (int c = 0; c < columns.size(); c++) {
+                        ColumnType type = columns.get(c).type();
+                        if ((nulls[c / 8] & (1 << (c % 8))) != 0) {
+                            ps.setNull(c + 1, type.sqlType);
+                        } else {
+                            type.bind(ps, c + 1, data);
+                        }
+                    }
+                    loaded[0]++;
+                }
+                
+                @Override
+                public boolean isBatchExhausted(int i) {
+                    return exhausted;
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return batchSize;
+                }
+            }));
+        }
+        if (data.get() != END) {
+            throw new IllegalStateException("Snapshot table " + table + " is not terminated");
+        }
+        return loaded[0];
+    }
+    
+    private static List<Column> readColumns(ByteBuffer data) {
+        int count = data.getInt();
+        List<Column> columns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = readString(data);
+            columns.add(new Column(name, ColumnType.values()[data.get()]));
+        }
+        return columns;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(ByteBuffer data) {
+        int length = data.getInt();
+        String value = StandardCharsets.UTF_8.decode(data.slice(data.position(), length)).toString();
+        data.position(data.position() + length);
+        return value;
+    }
+    
+    private record Column(String name, ColumnType type) {}
+    
+    // The column types the snapshotted tables use; the ordinal is the type code in the file
+    private enum ColumnType {
+        BIGINT(Types.BIGINT) {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                long value = rs.getLong(index);
+                return rs.wasNull() ? null : value;
+            }
+            
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeLong((Long) value);
+            }
+            
+            @Override
+            void bind(PreparedStatement ps, int index, ByteBuffer data) throws SQLException {
+                ps.setLong(index, data.getLong());
+            }
+        },
+        INTEGER(Types.INTEGER) {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                int value = rs.getInt(index);
+                return rs.wasNull() ? null : value;
+            }
+            
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeInt((Integer) value);
+            }
+            
+            @Override
+            void bind(PreparedStatement ps, int index, ByteBuffer data) throws SQLException {
+                ps.setInt(index, data.getInt());
+            }
+        },
+        BOOLEAN(Types.BOOLEAN) {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                boolean value = rs.getBoolean(index);
+                return rs.wasNull() ? null : value;
+            }
+            
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                out.writeBoolean((Boolean) value);
+            }
+            
+            @Override
+            void bind(PreparedStatement ps, int index, ByteBuffer data) throws SQLException {
+                ps.setBoolean(index, data.get() != 0);
+            }
+        },
+        TIMESTAMP(Types.TIMESTAMP) {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                return rs.getObject(index, LocalDateTime.class);
+            }
+            
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                LocalDateTime time = (LocalDateTime) value;
+                out.writeLong(time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000);
+            }
+            
+            @Override
+            void bind(PreparedStatement ps, int index, ByteBuffer data) throws SQLException {
+                long micros = data.getLong();
+                ps.setObject(index, LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                    (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC));
+            }
+        },
+        VARCHAR(Types.VARCHAR) {
+            @Override
+            Object read(ResultSet rs, int index) throws SQLException {
+                return rs.getString(index);
+            }
+            
+            @Override
+            void write(DataOutputStream out, Object value) throws IOException {
+                writeString(out, (String) value);
+            }
+            
+            @Override
+            void bind(PreparedStatement ps, int index, ByteBuffer data) throws SQLException {
+                ps.setString(index, readString(data));
+            }
+        };
+        
+        private final int sqlType;
+        
+        ColumnType(int sqlType) {
+            this.sqlType = sqlType;
+        }
+        
+        abstract Object read(ResultSet rs, int index) throws SQLException;
+        
+        abstract void write(DataOutputStream out, Object value) throws IOException;
+        
+        abstract void bind(PreparedStatement ps, int index, ByteBuffer data) throws SQLException;
+        
+        static ColumnType of(String table, String column, int sqlType) {
+            return switch (sqlType) {
+                case Types.BIGINT -> BIGINT;
+                case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INTEGER;
+                case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+                case Types.TIMESTAMP -> TIMESTAMP;
+                case Types.VARCHAR, Types.CHAR, Types.LONGVARCHAR, Types.NVARCHAR, Types.NCHAR -> VARCHAR;
+                default -> throw new IllegalStateException(
+                    "Column " + table + "." + column + " has a type snapshots do not support: " + sqlType);
+            };
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.server.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Round trips through the snapshot file on a bare H2 database, no application context
+class TableSnapshotTests {
+
+    private static final String URL = "jdbc:h2:mem:table-snapshot;DB_CLOSE_DELAY=-1";
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void createTables() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE parents (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                + "active BOOLEAN, rank INTEGER, created_at TIMESTAMP(6))");
+        jdbcTemplate.execute("CREATE TABLE children (parent_id BIGINT REFERENCES parents (id), label VARCHAR(255))");
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void restoresEveryValueIncludingNulls() throws IOException {
+        LocalDateTime created = LocalDateTime.of(2024, 2, 29, 23, 59, 58, 123_456_000);
+        jdbcTemplate.update("INSERT INTO parents VALUES (1, 'Zoë Ünicode', TRUE, 7, ?)", created);
+        jdbcTemplate.update("INSERT INTO parents VALUES (2, NULL, NULL, NULL, NULL)");
+        for (int i = 0; i < 12; i++) {
+            jdbcTemplate.update("INSERT INTO children VALUES (?, ?)", 1 + i % 2, "child " + i);
+        }
+        List<Map<String, Object>> parents = jdbcTemplate.queryForList("SELECT * FROM parents ORDER BY id");
+        List<Map<String, Object>> children = jdbcTemplate.queryForList("SELECT * FROM children ORDER BY label");
+
+        Path file = directory.resolve("data.snapshot");
+        TableSnapshot.write(jdbcTemplate, List.of("parents", "children"), file);
+        jdbcTemplate.execute("DELETE FROM children");
+        jdbcTemplate.execute("DELETE FROM parents");
+
+        // Batches smaller than the table, so loading spans several transactions
+        Map<String, Long> loaded = TableSnapshot.load(jdbcTemplate, transactionTemplate, file, 5);
+
+        assertThat(loaded).containsExactly(Map.entry("parents", 2L), Map.entry("children", 12L));
+        assertThat(jdbcTemplate.queryForList("SELECT * FROM parents ORDER BY id")).isEqualTo(parents);
+        assertThat(jdbcTemplate.queryForList("SELECT * FROM children ORDER BY label")).isEqualTo(children);
+    }
+
+    @Test
+    void rejectsACorruptFileBeforeLoadingAnything() throws IOException {
+        jdbcTemplate.update("INSERT INTO parents (id, name) VALUES (1, 'one')");
+        Path file = directory.resolve("data.snapshot");
+        TableSnapshot.write(jdbcTemplate, List.of("parents"), file);
+        jdbcTemplate.execute("DELETE FROM parents");
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x20;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(() -> TableSnapshot.load(jdbcTemplate, transactionTemplate, file, 100))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("corrupt");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM parents", Long.class)).isZero();
+    }
+}